@@ -0,0 +1,7 @@
+#!/bin/sh
+# Runs once when the primary is initialised: a role for the replica and access for streaming replication.
+set -e
+psql -v ON_ERROR_STOP=1 -U "$POSTGRES_USER" -d "$POSTGRES_DB" <<SQL
+create role replicator with replication login password '${REPLICATION_PASSWORD}';
+SQL
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
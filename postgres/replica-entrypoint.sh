@@ -0,0 +1,13 @@
+#!/bin/sh
+# Clones the primary on first start and then follows it as a read-only hot standby.
+set -e
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_basebackup -h "$PRIMARY_HOST" -U replicator -D "$PGDATA" \
+            -X stream -R --checkpoint=fast; do
+        echo "Waiting for the primary"
+        rm -rf "${PGDATA:?}"/*
+        sleep 2
+    done
+    chmod 700 "$PGDATA"
+fi
+exec postgres
@@ -0,0 +1,49 @@
+#!/bin/sh
+# Reports the time from `docker run` to the first 200 answer of GET /transactions for each image, over
+# several runs, with the CPU and memory limits of docker-compose.yml. The containers use the host network
+# and the database given by QUARKUS_DATASOURCE_* (by default the one started by docker-compose).
+# Usage: scripts/measure-startup.sh [runs] [image...]
+set -eu
+RUNS=${1:-5}
+[ "$#" -gt 0 ] && shift
+[ "$#" -gt 0 ] || set -- transactions-app:jvm transactions-app:jvm-appcds transactions-app:native
+PORT=${MEASURE_HTTP_PORT:-8080}
+TIMEOUT_MS=$((${MEASURE_TIMEOUT:-120} * 1000))
+
+now_ms() {
+    date +%s%3N
+}
+
+first_request_ms() {
+    started=$(now_ms)
+    container=$(docker run -d --rm --network host --cpus 1 --memory 1g \
+        -e QUARKUS_HTTP_PORT="$PORT" \
+        -e QUARKUS_DATASOURCE_JDBC_URL="${QUARKUS_DATASOURCE_JDBC_URL:-jdbc:postgresql://localhost:5432/transactions}" \
+        -e QUARKUS_DATASOURCE_USERNAME="${QUARKUS_DATASOURCE_USERNAME:-transactions_user}" \
+        -e QUARKUS_DATASOURCE_PASSWORD="${QUARKUS_DATASOURCE_PASSWORD:-transactions_pass}" \
+        "$1")
+    while [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/transactions")" != 200 ]; do
+        if [ $(($(now_ms) - started)) -gt "$TIMEOUT_MS" ]; then
+            docker rm -f "$container" > /dev/null
+            echo "$1 did not answer within ${MEASURE_TIMEOUT:-120}s" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(($(now_ms) - started))
+    docker rm -f "$container" > /dev/null
+    echo "$elapsed"
+}
+
+printf '%-40s %8s %8s %8s\n' image min median max
+for image in "$@"; do
+    times=""
+    run=0
+    while [ "$run" -lt "$RUNS" ]; do
+        times="$times $(first_request_ms "$image")"
+        run=$((run + 1))
+    done
+    sorted=$(echo "$times" | tr ' ' '\n' | grep . | sort -n)
+    printf '%-40s %6sms %6sms %6sms\n' "$image" "$(echo "$sorted" | head -1)" \
+        "$(echo "$sorted" | sed -n "$(((RUNS + 1) / 2))p")" "$(echo "$sorted" | tail -1)"
+done
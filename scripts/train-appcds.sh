@@ -0,0 +1,42 @@
+#!/bin/sh
+# Trains an AppCDS archive for the fast-jar in app-dir: starts the application with -XX:ArchiveClassesAtExit,
+# runs scripts/warmup.sh against it and stops it, and the JVM writes the classes loaded so far on exit. The
+# application reads its datasource from QUARKUS_DATASOURCE_* as usual; use a throwaway database, since the
+# warm-up imports rows.
+# Usage: scripts/train-appcds.sh [app-dir] [archive]
+set -eu
+SCRIPTS=$(cd "$(dirname "$0")" && pwd)
+APP_DIR=${1:-target/quarkus-app}
+ARCHIVE=${2:-$APP_DIR/app-cds.jsa}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+HTTP_PORT=${TRAINING_HTTP_PORT:-18080}
+MANAGEMENT_PORT=${TRAINING_MANAGEMENT_PORT:-19000}
+
+rm -f "$ARCHIVE"
+# shellcheck disable=SC2086
+"$JAVA" -XX:ArchiveClassesAtExit="$ARCHIVE" -Xlog:cds=error ${TRAINING_JAVA_OPTS:-} \
+    -Dquarkus.http.port="$HTTP_PORT" -Dquarkus.management.port="$MANAGEMENT_PORT" \
+    -jar "$APP_DIR/quarkus-run.jar" &
+PID=$!
+trap 'kill "$PID" 2>/dev/null || true' EXIT
+
+waited=0
+until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$MANAGEMENT_PORT/q/health/ready")" = 200 ]; do
+    if ! kill -0 "$PID" 2>/dev/null || [ "$waited" -ge "${TRAINING_START_TIMEOUT:-120}" ]; then
+        echo "The application did not become ready for training" >&2
+        exit 1
+    fi
+    sleep 1
+    waited=$((waited + 1))
+done
+
+"$SCRIPTS/warmup.sh" "http://localhost:$HTTP_PORT" "${TRAINING_ROUNDS:-20}"
+
+kill -TERM "$PID"
+wait "$PID" || true
+trap - EXIT
+if [ ! -s "$ARCHIVE" ]; then
+    echo "No archive was written to $ARCHIVE" >&2
+    exit 1
+fi
+echo "AppCDS archive written to $ARCHIVE"
@@ -0,0 +1,51 @@
+#!/bin/sh
+# Exercises the upload, listing, export and summary paths of a running application, so that a JVM
+# started with -XX:ArchiveClassesAtExit records the classes they load.
+# Usage: scripts/warmup.sh [base-url] [rounds]
+set -eu
+BASE_URL=${1:-http://localhost:8080}
+ROUNDS=${2:-20}
+RUN=$(date +%s)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+csv() {
+    echo "reference,timestamp,amount,currency,description"
+    i=0
+    while [ "$i" -lt 200 ]; do
+        echo "W$RUN-$1-$i,2024-0$((i % 9 + 1))-1$((i % 10))T10:30:00Z,$((i - 100)).$((i % 100)),$( [ $((i % 2)) -eq 0 ] && echo EUR || echo CZK),Warm-up $i"
+        i=$((i + 1))
+    done
+}
+
+request() {
+    expected=$1
+    shift
+    status=$(curl -s -o /dev/null -w '%{http_code}' "$@")
+    if [ "$status" != "$expected" ]; then
+        echo "Warm-up request $* answered $status, expected $expected" >&2
+        exit 1
+    fi
+}
+
+round=0
+while [ "$round" -lt "$ROUNDS" ]; do
+    csv "$round-s" > "$WORK/strict.csv"
+    request 201 -X POST -H 'Content-Type: text/csv' --data-binary @"$WORK/strict.csv" "$BASE_URL/transactions"
+    { csv "$round-p"; echo "broken line"; } > "$WORK/partial.csv"
+    request 201 -X POST -H 'Content-Type: text/csv' --data-binary @"$WORK/partial.csv" "$BASE_URL/transactions?mode=partial"
+    csv "$round-g" | gzip > "$WORK/gzip.csv.gz"
+    request 201 -X POST -H 'Content-Type: text/csv' -H 'Content-Encoding: gzip' \
+        --data-binary @"$WORK/gzip.csv.gz" "$BASE_URL/transactions"
+
+    request 200 "$BASE_URL/transactions"
+    request 200 -H 'Accept-Encoding: gzip' "$BASE_URL/transactions?size=100"
+    request 200 "$BASE_URL/transactions?from=2024-01-01&to=2024-06-01&currency=EUR&type=expense"
+    request 200 "$BASE_URL/transactions?type=income"
+    request 200 "$BASE_URL/transactions/export?currency=CZK"
+    request 200 "$BASE_URL/transactions/export?format=json&from=2024-01-01T00:00:00Z"
+    request 200 "$BASE_URL/transactions/summary?from=2024-01-01&to=2025-01-01&granularity=month"
+    request 200 "$BASE_URL/transactions/summary?granularity=day&currency=EUR"
+    round=$((round + 1))
+done
+echo "Warm-up finished: $ROUNDS rounds against $BASE_URL"
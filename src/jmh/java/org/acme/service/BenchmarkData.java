@@ -0,0 +1,86 @@
+package org.acme.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.data.BankTransaction;
+
+/**
+ * Generates upload files and entities shaped like real bank statements: mixed signs, two decimals,
+ * a few currencies and every tenth description quoted.
+ */
+final class BenchmarkData {
+
+    static final String HEADER = "reference,timestamp,amount,currency,description\n";
+    private static final String[] CURRENCIES = {"EUR", "CZK", "USD", "GBP"};
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private BenchmarkData() {
+    }
+
+    static Path writeCsv(int rows, String referencePrefix) {
+        try {
+            Path file = Files.createTempFile("transactions-" + rows + "-", ".csv");
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                StringBuilder row = new StringBuilder(128);
+                for (int i = 0; i < rows; i++) {
+                    row.setLength(0);
+                    appendRow(row, i, referencePrefix);
+                    writer.append(row);
+                }
+            }
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static byte[] csvBytes(int rows, String referencePrefix) {
+        StringBuilder csv = new StringBuilder(HEADER.length() + rows * 80).append(HEADER);
+        for (int i = 0; i < rows; i++) {
+            appendRow(csv, i, referencePrefix);
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static List<BankTransaction> transactions(int rows) {
+        List<BankTransaction> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            BankTransaction transaction = new BankTransaction();
+            transaction.setReference("TX%09d".formatted(i));
+            transaction.setTimestamp(START.plusSeconds(i * 37L));
+            transaction.setAmount(amount(i));
+            transaction.setCurrency(CURRENCIES[i % CURRENCIES.length]);
+            transaction.setDescription(i % 3 == 0 ? null : "Card payment " + i);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    static BigDecimal amount(int i) {
+        long cents = (i * 7_919L) % 2_000_000L - 400_000L;
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static void appendRow(StringBuilder row, int i, String referencePrefix) {
+        row.append(referencePrefix).append(i).append(',')
+            .append(START.plusSeconds(i * 37L)).append(',')
+            .append(amount(i).toPlainString()).append(',')
+            .append(CURRENCIES[i % CURRENCIES.length]).append(',');
+        if (i % 10 == 0) {
+            row.append("\"Transfer, \"\"ref ").append(i).append("\"\"\"");
+        } else {
+            row.append("Card payment ").append(i);
+        }
+        row.append('\n');
+    }
+}
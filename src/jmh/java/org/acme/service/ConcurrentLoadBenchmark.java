@@ -0,0 +1,91 @@
+package org.acme.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Page loads and small uploads at high concurrency against an application started separately, to
+ * compare worker threads with virtual threads ({@code quarkus.virtual-threads.enabled}). Sample mode
+ * reports throughput and latency percentiles per operation; start the application with
+ * {@code transactions.listing.cache.enabled=false} so every page load reads from the database. Thread
+ * counts per operation can be changed with {@code -tg <listing>,<upload>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+public class ConcurrentLoadBenchmark {
+
+    @Param("http://localhost:8080")
+    String baseUrl;
+
+    @Param("100")
+    int uploadRows;
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong uploads = new AtomicLong();
+    private HttpClient client;
+
+    @Setup
+    public void connect() {
+        client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    @TearDown
+    public void disconnect() {
+        client.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(190)
+    public int listTransactions() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/transactions?size=50")).GET().build(), 200);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(10)
+    public int uploadTransactions() throws IOException, InterruptedException {
+        byte[] csv = BenchmarkData.csvBytes(uploadRows, "L" + runId + "-" + uploads.incrementAndGet() + "-");
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/transactions"))
+            .header("Content-Type", "text/csv")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(csv))
+            .build(), 201);
+    }
+
+    private int send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode() + ": "
+                + new String(response.body()));
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,69 @@
+package org.acme.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.data.BankTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parses generated upload files from disk. {@code parse} materializes the whole file like
+ * {@link CsvParser#parse(InputStream)}; {@code readChunks} reads it the way imports do, one chunk at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CsvParserBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    int rows;
+
+    private Path file;
+
+    @Setup
+    public void writeFile() {
+        file = BenchmarkData.writeCsv(rows, "TX");
+    }
+
+    @TearDown
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<BankTransaction> parse() throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return CsvParser.parse(in);
+        }
+    }
+
+    @Benchmark
+    public void readChunks(Blackhole blackhole) throws IOException {
+        try (InputStream in = Files.newInputStream(file);
+             CsvParser.RecordReader reader = CsvParser.open(in)) {
+            List<BankTransaction> chunk;
+            while (!(chunk = reader.nextChunk(1000)).isEmpty()) {
+                blackhole.consume(chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.acme.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TransactionService#importCsv} end to end through {@code POST /transactions} of an
+ * application started separately against a local PostgreSQL, e.g. {@code ./mvnw quarkus:dev}. Every
+ * invocation uploads references that were never used before, so each import stores every row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ImportBenchmark {
+
+    @Param({"1000", "100000"})
+    int rows;
+
+    @Param("http://localhost:8080")
+    String baseUrl;
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private HttpClient client;
+    private int upload;
+    private byte[] csv;
+
+    @Setup
+    public void connect() {
+        client = HttpClient.newHttpClient();
+    }
+
+    @Setup(Level.Invocation)
+    public void generateUpload() {
+        csv = BenchmarkData.csvBytes(rows, "B" + runId + "-" + upload++ + "-");
+    }
+
+    @Benchmark
+    public int importCsv() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/transactions"))
+            .header("Content-Type", "text/csv")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(csv))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Import failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.statusCode();
+    }
+}
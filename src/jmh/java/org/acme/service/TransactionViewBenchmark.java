@@ -0,0 +1,67 @@
+package org.acme.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.data.BankTransaction;
+import org.acme.service.TransactionViewService.TransactionRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransactionViewBenchmark {
+
+    @Param({"50", "1000"})
+    int rows;
+
+    private final TransactionFormatter formatter = new TransactionFormatter();
+    private final TransactionViewService viewService = new TransactionViewService(formatter);
+    private List<BankTransaction> transactions;
+    private String highlightReference;
+    private BigDecimal[] amounts;
+    private Instant[] timestamps;
+    private int next;
+
+    @Setup
+    public void createRows() {
+        transactions = BenchmarkData.transactions(rows);
+        highlightReference = transactions.get(rows / 2).getReference();
+        amounts = transactions.stream().map(BankTransaction::getAmount).toArray(BigDecimal[]::new);
+        timestamps = transactions.stream().map(BankTransaction::getTimestamp).toArray(Instant[]::new);
+    }
+
+    @Benchmark
+    public List<TransactionRow> buildTransactionRows() {
+        return viewService.buildTransactionRows(transactions, highlightReference);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formatAmount() {
+        int index = next++ % rows;
+        return formatter.formatAmount(amounts[index], "EUR");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formatTimestamp() {
+        int index = next++ % rows;
+        return formatter.formatTimestamp(timestamps[index]);
+    }
+}
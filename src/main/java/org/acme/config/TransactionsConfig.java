@@ -0,0 +1,318 @@
+package org.acme.config;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+@ConfigMapping(prefix = "transactions")
+public interface TransactionsConfig {
+
+    @WithName("import")
+    Import importing();
+
+    Persistence persistence();
+
+    Listing listing();
+
+    Export export();
+
+    Duplicates duplicates();
+
+    ReadModel readModel();
+
+    Database database();
+
+    Cluster cluster();
+
+    interface Import {
+
+        /**
+         * Number of CSV records that are validated and written to the database together.
+         */
+        @WithDefault("1000")
+        int chunkSize();
+
+        /**
+         * When enabled the whole file is imported in a single transaction, so a failing chunk
+         * rolls back every chunk before it. When disabled each chunk is committed on its own.
+         */
+        @WithDefault("true")
+        boolean atomic();
+
+        @WithDefault("10m")
+        Duration transactionTimeout();
+
+        /**
+         * Invalid lines a strict import reports at most: validation stops at the next invalid line and the
+         * import fails with the errors collected until then. Unset, every invalid line of the file is
+         * reported. Partial imports are not stopped; they store their rejected lines on disk.
+         */
+        OptionalInt maxErrors();
+
+        /**
+         * How long an upload read on a virtual thread may wait for the client's next bytes. The connection
+         * is then closed, which fails the upload and frees the platform thread reading its body.
+         */
+        @WithDefault("60s")
+        Duration readTimeout();
+
+        Parallel parallel();
+
+        interface Parallel {
+
+            /**
+             * Validates chunks of at least {@link #minRecords()} records on a dedicated fork-join pool.
+             * Smaller chunks and small files are always validated on the request thread.
+             */
+            @WithDefault("true")
+            boolean enabled();
+
+            /**
+             * Size of the validation pool; defaults to the number of available processors.
+             */
+            OptionalInt threads();
+
+            @WithDefault("1000")
+            int minRecords();
+        }
+
+        Compression compression();
+
+        interface Compression {
+
+            /**
+             * Largest decompressed size of a {@code gzip} or {@code zstd} encoded upload.
+             */
+            @WithDefault("4G")
+            MemorySize maxDecompressedSize();
+
+            /**
+             * Largest ratio of decompressed to compressed bytes, checked once an upload has expanded
+             * beyond 1 MiB. CSV statements typically compress 10-20x.
+             */
+            @WithDefault("200")
+            int maxRatio();
+        }
+
+        Async async();
+
+        interface Async {
+
+            /**
+             * Imports that run at the same time; further jobs wait in a queue of
+             * {@link #queueCapacity()} entries and are rejected with {@code 429} once it is full.
+             */
+            @WithDefault("2")
+            int maxConcurrent();
+
+            @WithDefault("8")
+            int queueCapacity();
+
+            /**
+             * Where uploads are stored until their job has run; defaults to the system temp directory.
+             */
+            Optional<Path> spoolDirectory();
+
+            /**
+             * How long the status of a finished job stays available.
+             */
+            @WithDefault("1h")
+            Duration retention();
+        }
+
+        Fingerprint fingerprint();
+
+        interface Fingerprint {
+
+            /**
+             * When enabled, an upload whose body has the same SHA-256 as an upload imported before is
+             * not imported again and the earlier result is returned instead. Uploads are stored on disk
+             * first so the hash is known before the import starts. The hash covers the body as sent, before
+             * {@code Content-Encoding} is decoded, so the same CSV sent uncompressed and gzip-compressed, or
+             * compressed with other settings, is imported twice. {@code Idempotency-Key} headers are honored
+             * either way.
+             */
+            @WithDefault("false")
+            boolean enabled();
+        }
+    }
+
+    interface Persistence {
+
+        /**
+         * How imported rows are written: {@code batch} uses Hibernate JDBC batching, {@code copy} uses
+         * PostgreSQL {@code COPY FROM STDIN}, {@code auto} picks {@code copy} for chunks of at least
+         * {@link #copyThreshold()} rows.
+         */
+        @WithDefault("batch")
+        Engine engine();
+
+        @WithDefault("5000")
+        int copyThreshold();
+
+        enum Engine {
+            BATCH,
+            COPY,
+            AUTO
+        }
+    }
+
+    interface Listing {
+
+        @WithDefault("50")
+        int pageSize();
+
+        @WithDefault("1000")
+        int maxPageSize();
+
+        /**
+         * {@code buffered} renders the whole page before responding; {@code streaming} reads rows from a
+         * database cursor and writes the page as chunked output, {@link #streamBatchSize()} rows at a time.
+         */
+        @WithDefault("buffered")
+        RenderMode renderMode();
+
+        @WithDefault("500")
+        int streamBatchSize();
+
+        Cache cache();
+
+        interface Cache {
+
+            /**
+             * Keeps rendered pages in memory until the next import. Only applies to the {@code buffered}
+             * render mode; conditional requests are answered with {@code 304} in both modes.
+             */
+            @WithDefault("true")
+            boolean enabled();
+
+            @WithDefault("64")
+            int maxPages();
+
+            /**
+             * Also keeps a gzip-compressed copy of every cached page for clients accepting it.
+             */
+            @WithDefault("true")
+            boolean gzip();
+        }
+
+        enum RenderMode {
+            BUFFERED,
+            STREAMING
+        }
+    }
+
+    interface Export {
+
+        /**
+         * Rows fetched from the database cursor per round trip.
+         */
+        @WithDefault("1000")
+        int fetchSize();
+
+        /**
+         * Transaction timeout of one export; the cursor stays open until the last row is written.
+         */
+        @WithDefault("1h")
+        Duration transactionTimeout();
+    }
+
+    interface Duplicates {
+
+        /**
+         * {@code lookup} checks the database for existing references before inserting; {@code on-conflict}
+         * inserts with {@code ON CONFLICT (reference) DO NOTHING} and rejects the chunk if any row was skipped.
+         */
+        @WithDefault("lookup")
+        Strategy strategy();
+
+        /**
+         * References bound per lookup statement.
+         */
+        @WithDefault("5000")
+        int lookupBatchSize();
+
+        BloomFilter bloomFilter();
+
+        interface BloomFilter {
+
+            /**
+             * Keeps an in-memory Bloom filter of stored references, warmed at startup, so lookups are skipped
+             * for references that are certainly new.
+             */
+            @WithDefault("false")
+            boolean enabled();
+
+            @WithDefault("10000000")
+            long expectedReferences();
+
+            @WithDefault("0.01")
+            double falsePositiveProbability();
+        }
+
+        enum Strategy {
+            LOOKUP,
+            ON_CONFLICT
+        }
+    }
+
+    interface Database {
+
+        /**
+         * Requests doing database work at the same time; others wait for a permit instead of a pooled
+         * connection. Defaults to {@code quarkus.datasource.jdbc.max-size}.
+         */
+        OptionalInt maxConcurrentWork();
+
+        /**
+         * How long a request waits for a permit before it is answered with {@code 503}.
+         */
+        @WithDefault("30s")
+        Duration acquireTimeout();
+
+        /**
+         * How long reads stay on the primary after an import committed, here or on another replica, before
+         * they go to the {@code read} datasource again. Should exceed the usual replication lag.
+         */
+        @WithDefault("5s")
+        Duration readYourWritesWindow();
+    }
+
+    interface ReadModel {
+
+        /**
+         * Keeps a columnar copy of all transactions in memory, loaded at startup and extended by every
+         * committed import, and serves listings and the largest income from it instead of the database.
+         * Needs roughly 70 bytes of heap per transaction plus its reference and description.
+         */
+        @WithDefault("false")
+        boolean enabled();
+    }
+
+    interface Cluster {
+
+        /**
+         * Coordinates replicas sharing one database. Committed imports are announced with {@code NOTIFY} so
+         * other replicas drop their in-memory state. The reference Bloom filter cannot see imports of other
+         * replicas and is not used. Lookup-based duplicate checks claim the references they check until the
+         * import commits with or without this setting.
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        @WithDefault("transactions_changed")
+        String channel();
+
+        /**
+         * Pause before the listener reconnects after losing its database connection.
+         */
+        @WithDefault("5s")
+        Duration reconnectDelay();
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.UniqueConstraint;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "bank_transaction", uniqueConstraints = {
@@ -30,6 +31,15 @@ public class BankTransaction extends PanacheEntity {
     @Column(length = 1024)
     private String description;
 
+    /**
+     * The timestamp rounded half up to the microsecond precision of {@code timestamptz}, as the JDBC
+     * driver stores it. Everything that writes or derives from a stored timestamp without the driver
+     * rounds it this way too.
+     */
+    public static Instant storedTimestamp(Instant timestamp) {
+        return timestamp.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+    }
+
     public String getReference() {
         return reference;
     }
@@ -8,6 +8,10 @@ public record ApiError(String message, List<String> details) {
         return new ApiError("Validation failed", List.copyOf(details));
     }
 
+    public static ApiError of(String message) {
+        return new ApiError(message, List.of());
+    }
+
     public static ApiError unexpected() {
         return new ApiError("Unexpected server error", List.of());
     }
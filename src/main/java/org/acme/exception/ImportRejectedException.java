@@ -0,0 +1,8 @@
+package org.acme.exception;
+
+public class ImportRejectedException extends RuntimeException {
+
+    public ImportRejectedException(String message) {
+        super(message);
+    }
+}
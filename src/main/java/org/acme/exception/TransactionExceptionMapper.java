@@ -6,13 +6,18 @@ import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 
+import java.util.List;
+
 @Provider
 public class TransactionExceptionMapper implements ExceptionMapper<Throwable> {
 
     @Override
     public Response toResponse(Throwable exception) {
-        Log.error("An exception occurred: ", exception);
         if (exception instanceof TransactionValidationException validationException) {
+            // error lists can be long, the client gets all of them and the log only a summary
+            List<String> errors = validationException.getErrors();
+            Log.warnf("Validation failed with %d errors, first: %s", errors.size(),
+                    errors.isEmpty() ? "none" : errors.getFirst());
             ApiError error = ApiError.validation(validationException.getErrors());
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(error)
@@ -20,6 +25,31 @@ public class TransactionExceptionMapper implements ExceptionMapper<Throwable> {
                     .build();
         }
 
+        if (exception instanceof DatabaseBusyException) {
+            Log.warn(exception.getMessage());
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity(ApiError.of(exception.getMessage()))
+                    .type(MediaType.APPLICATION_JSON)
+                    .build();
+        }
+
+        if (exception instanceof IdempotencyKeyMismatchException) {
+            Log.warn(exception.getMessage());
+            return Response.status(422)
+                    .entity(ApiError.of(exception.getMessage()))
+                    .type(MediaType.APPLICATION_JSON)
+                    .build();
+        }
+
+        if (exception instanceof ImportRejectedException) {
+            Log.warn(exception.getMessage());
+            return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .entity(ApiError.of(exception.getMessage()))
+                    .type(MediaType.APPLICATION_JSON)
+                    .build();
+        }
+
+        Log.error("An exception occurred: ", exception);
         ApiError error = ApiError.unexpected();
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity(error)
@@ -0,0 +1,60 @@
+package org.acme.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Wall-clock time spent in the named phases of one request. Time of repeated phases (one per chunk or
+ * batch) is summed. Not thread-safe; a request records its phases on one thread at a time.
+ */
+public final class PhaseTimings {
+
+    private final long startedAt = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    public <T> T time(String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            add(phase, System.nanoTime() - start);
+        }
+    }
+
+    public void time(String phase, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            add(phase, System.nanoTime() - start);
+        }
+    }
+
+    public void add(String phase, long nanos) {
+        phases.merge(phase, nanos, Long::sum);
+    }
+
+    public long nanos(String phase) {
+        return phases.getOrDefault(phase, 0L);
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startedAt;
+    }
+
+    Map<String, Long> phases() {
+        return phases;
+    }
+
+    /**
+     * Formats the phases as {@code parse=12ms, persist=40ms} for log lines.
+     */
+    public String summary() {
+        StringJoiner joiner = new StringJoiner(", ");
+        phases.forEach((phase, nanos) -> joiner.add(phase + "=" + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms"));
+        return joiner.toString();
+    }
+}
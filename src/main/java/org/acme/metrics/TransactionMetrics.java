@@ -0,0 +1,116 @@
+package org.acme.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters for the import, listing and export hot paths, exposed by the Prometheus registry on the management
+ * interface. Every finished request also logs its phase durations.
+ */
+@ApplicationScoped
+public class TransactionMetrics {
+
+    private final MeterRegistry registry;
+    private final AtomicInteger importsInFlight;
+    private final Counter rowsAccepted;
+    private final Counter rowsRejected;
+    private final DistributionSummary importThroughput;
+
+    public TransactionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.importsInFlight = registry.gauge("transactions.import.in.flight", new AtomicInteger());
+        this.rowsAccepted = Counter.builder("transactions.import.rows")
+            .description("CSV rows stored by imports")
+            .tag("result", "accepted")
+            .register(registry);
+        this.rowsRejected = Counter.builder("transactions.import.rows")
+            .description("CSV rows read by imports that failed and were not stored")
+            .tag("result", "rejected")
+            .register(registry);
+        this.importThroughput = DistributionSummary.builder("transactions.import.throughput")
+            .description("Rows per second of successful imports")
+            .baseUnit("rows/s")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    public void importStarted() {
+        importsInFlight.incrementAndGet();
+    }
+
+    public void importFinished(PhaseTimings timings, long rowsStored, long rowsRead, boolean succeeded) {
+        importsInFlight.decrementAndGet();
+        String outcome = succeeded ? "success" : "failure";
+        long elapsed = timings.elapsedNanos();
+
+        timings.phases().forEach((phase, nanos) -> phaseTimer("transactions.import.phase", phase, "outcome", outcome)
+            .record(nanos, TimeUnit.NANOSECONDS));
+        Timer.builder("transactions.import.duration")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+
+        rowsAccepted.increment(rowsStored);
+        rowsRejected.increment(Math.max(rowsRead - rowsStored, 0));
+        if (succeeded && elapsed > 0) {
+            importThroughput.record(rowsStored * 1e9 / elapsed);
+        }
+
+        Log.infof("Import %s: %d rows stored, %d rows read in %d ms (%s)", outcome, rowsStored, rowsRead,
+            TimeUnit.NANOSECONDS.toMillis(elapsed), timings.summary());
+    }
+
+    public void listingRendered(String renderMode, PhaseTimings timings) {
+        long elapsed = timings.elapsedNanos();
+        timings.phases().forEach((phase, nanos) -> phaseTimer("transactions.listing.phase", phase, "mode", renderMode)
+            .record(nanos, TimeUnit.NANOSECONDS));
+        Timer.builder("transactions.listing.duration")
+            .tag("mode", renderMode)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+
+        Log.infof("Rendered transactions page (%s) in %d ms (%s)", renderMode,
+            TimeUnit.NANOSECONDS.toMillis(elapsed), timings.summary());
+    }
+
+    /**
+     * Counts listing responses by how they were produced: {@code rendered}, {@code cached} or
+     * {@code not_modified}.
+     */
+    public void listingServed(String result) {
+        Counter.builder("transactions.listing.responses")
+            .tag("result", result)
+            .register(registry)
+            .increment();
+    }
+
+    public void exportFinished(String format, long rows, long elapsedNanos) {
+        Counter.builder("transactions.export.rows")
+            .tag("format", format)
+            .register(registry)
+            .increment(rows);
+        Timer.builder("transactions.export.duration")
+            .tag("format", format)
+            .register(registry)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        Log.infof("Exported %d transactions (%s) in %d ms", rows, format, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    private Timer phaseTimer(String name, String phase, String tagKey, String tagValue) {
+        return Timer.builder(name)
+            .tag("phase", phase)
+            .tag(tagKey, tagValue)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+}
@@ -0,0 +1,16 @@
+package org.acme.persistence;
+
+import java.util.List;
+
+import org.acme.data.BankTransaction;
+
+public interface BankTransactionWriter {
+
+    void write(List<BankTransaction> transactions);
+
+    /**
+     * Inserts with {@code ON CONFLICT (reference) DO NOTHING} semantics and returns the references that
+     * were already stored, in input order. The caller decides whether skipped rows are an error.
+     */
+    List<String> writeIgnoringConflicts(List<BankTransaction> transactions);
+}
@@ -0,0 +1,39 @@
+package org.acme.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+import org.acme.config.TransactionsConfig;
+import org.acme.data.BankTransaction;
+
+@ApplicationScoped
+public class BulkPersistenceEngine {
+
+    private final HibernateBatchWriter batchWriter;
+    private final PostgresCopyWriter copyWriter;
+    private final TransactionsConfig.Persistence config;
+
+    public BulkPersistenceEngine(HibernateBatchWriter batchWriter, PostgresCopyWriter copyWriter,
+                                 TransactionsConfig config) {
+        this.batchWriter = batchWriter;
+        this.copyWriter = copyWriter;
+        this.config = config.persistence();
+    }
+
+    public void write(List<BankTransaction> transactions) {
+        writerFor(transactions.size()).write(transactions);
+    }
+
+    public List<String> writeIgnoringConflicts(List<BankTransaction> transactions) {
+        return writerFor(transactions.size()).writeIgnoringConflicts(transactions);
+    }
+
+    BankTransactionWriter writerFor(int rows) {
+        return switch (config.engine()) {
+            case BATCH -> batchWriter;
+            case COPY -> copyWriter;
+            case AUTO -> rows >= config.copyThreshold() ? copyWriter : batchWriter;
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package org.acme.persistence;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.acme.config.TransactionsConfig;
+import org.acme.data.BankTransaction;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Tells the other replicas when this one has imported transactions, through PostgreSQL
+ * {@code LISTEN/NOTIFY} on {@code transactions.cluster.channel}. Each notification carries the id range of
+ * the committed chunk and is sent inside the import transaction, so it is delivered only once that commits.
+ * A dedicated connection outside the pool listens for the notifications of other replicas and fires
+ * {@link PeerImported} with the ranges of each batch of them, and without ranges after reconnecting, since
+ * notifications sent meanwhile are lost. Observers run on the listening thread and must return quickly.
+ */
+@ApplicationScoped
+public class ClusterNotifications {
+
+    /**
+     * Ids {@code first} to {@code last} of a committed chunk. Rows of other chunks may fall in between.
+     */
+    public record IdRange(long first, long last) {
+    }
+
+    /**
+     * Another replica committed the rows in {@code ranges} or, when there are none, imports may have been
+     * missed.
+     */
+    public record PeerImported(List<IdRange> ranges) {
+
+        public boolean missed() {
+            return ranges.isEmpty();
+        }
+    }
+
+    private static final int POLL_MILLIS = 500;
+
+    private final EntityManager entityManager;
+    private final Event<PeerImported> peerImported;
+    private final TransactionsConfig.Cluster config;
+    private final Optional<String> url;
+    private final Optional<String> username;
+    private final Optional<String> password;
+    private final String instance = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private Thread listener;
+
+    public ClusterNotifications(EntityManager entityManager, Event<PeerImported> peerImported, TransactionsConfig config,
+                                @ConfigProperty(name = "quarkus.datasource.jdbc.url") Optional<String> url,
+                                @ConfigProperty(name = "quarkus.datasource.username") Optional<String> username,
+                                @ConfigProperty(name = "quarkus.datasource.password") Optional<String> password) {
+        this.entityManager = entityManager;
+        this.peerImported = peerImported;
+        this.config = config.cluster();
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Starts listening before the in-memory state is loaded, so no import committed after loading is missed.
+     */
+    void start(@Observes @Priority(1) StartupEvent event) throws SQLException {
+        if (!config.enabled()) {
+            return;
+        }
+        Connection connection = listen();
+        running = true;
+        listener = Thread.ofPlatform().name("cluster-listener").daemon().start(() -> run(connection));
+    }
+
+    /**
+     * Announces the import of a persisted chunk in the current transaction.
+     */
+    public void publish(List<BankTransaction> chunk) {
+        if (!config.enabled()) {
+            return;
+        }
+        long firstId = Long.MAX_VALUE;
+        long lastId = Long.MIN_VALUE;
+        for (BankTransaction transaction : chunk) {
+            firstId = Math.min(firstId, transaction.id);
+            lastId = Math.max(lastId, transaction.id);
+        }
+        String payload = instance + " " + firstId + " " + lastId;
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("select pg_notify(?, ?)")) {
+                statement.setString(1, config.channel());
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void run(Connection connection) {
+        while (running) {
+            try (Connection listening = connection == null ? listen() : connection) {
+                if (connection == null) {
+                    peerImported.fire(new PeerImported(List.of()));
+                }
+                connection = null;
+                PGConnection notifications = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(POLL_MILLIS);
+                    PeerImported imported = received == null ? null : fromPeers(received);
+                    if (imported != null) {
+                        peerImported.fire(imported);
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                connection = null;
+                if (!running) {
+                    return;
+                }
+                Log.warnf(ex, "Lost the connection listening for imports of other replicas, reconnecting in %s",
+                    config.reconnectDelay());
+                try {
+                    Thread.sleep(config.reconnectDelay());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The ranges committed by other replicas, without ranges if one of them could not be read, or
+     * {@code null} if all notifications came from this replica.
+     */
+    private PeerImported fromPeers(PGNotification[] received) {
+        List<IdRange> ranges = new ArrayList<>();
+        boolean fromPeer = false;
+        boolean unknown = false;
+        for (PGNotification notification : received) {
+            String[] payload = notification.getParameter().split(" ");
+            if (instance.equals(payload[0])) {
+                continue;
+            }
+            fromPeer = true;
+            try {
+                ranges.add(new IdRange(Long.parseLong(payload[1]), Long.parseLong(payload[2])));
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException ex) {
+                unknown = true;
+            }
+        }
+        if (!fromPeer) {
+            return null;
+        }
+        return new PeerImported(unknown ? List.of() : ranges);
+    }
+
+    private Connection listen() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+            url.orElseThrow(() -> new IllegalStateException("quarkus.datasource.jdbc.url is required to listen")),
+            username.orElse(null), password.orElse(null));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("listen \"" + config.channel().replace("\"", "\"\"") + "\"");
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+        return connection;
+    }
+}
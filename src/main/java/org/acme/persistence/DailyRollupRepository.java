@@ -0,0 +1,219 @@
+package org.acme.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.acme.data.BankTransaction;
+import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+
+/**
+ * Maintains and reads {@code daily_currency_rollup}, the income and expense totals per UTC day and
+ * currency. Imports add their chunks inside the import transaction, so the totals commit or roll back
+ * together with the rows they summarize.
+ */
+@ApplicationScoped
+public class DailyRollupRepository {
+
+    // keys are bound in (day, currency) order so concurrent imports lock shared rollup rows in the same order
+    private static final String UPSERT_SQL = """
+        insert into daily_currency_rollup as rollup (day, currency, income, expense, income_count, expense_count)
+        select * from unnest(?::date[], ?::varchar[], ?::numeric[], ?::numeric[], ?::bigint[], ?::bigint[])
+        on conflict (day, currency) do update set
+            income = rollup.income + excluded.income,
+            expense = rollup.expense + excluded.expense,
+            income_count = rollup.income_count + excluded.income_count,
+            expense_count = rollup.expense_count + excluded.expense_count""";
+
+    public enum Granularity {
+        DAY,
+        MONTH,
+        YEAR
+    }
+
+    private record RollupKey(LocalDate day, String currency) implements Comparable<RollupKey> {
+
+        @Override
+        public int compareTo(RollupKey other) {
+            int byDay = day.compareTo(other.day);
+            return byDay != 0 ? byDay : currency.compareTo(other.currency);
+        }
+    }
+
+    /**
+     * Totals of one period, which starts at {@code period}, in one currency. Expenses are negative.
+     */
+    public record PeriodTotals(LocalDate period, String currency, BigDecimal income, BigDecimal expense,
+                               long incomeCount, long expenseCount) {
+    }
+
+    private final EntityManager entityManager;
+
+    public DailyRollupRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Adds the chunk to the rollups with one statement. Amounts are rounded to the stored scale and
+     * timestamps to microseconds first, so the totals equal sums over the stored rows even for a row
+     * that rounds into the next day.
+     */
+    public void add(List<BankTransaction> transactions) {
+        Map<RollupKey, DayTotals> totals = new TreeMap<>();
+        for (BankTransaction transaction : transactions) {
+            BigDecimal amount = transaction.getAmount().setScale(2, RoundingMode.HALF_UP);
+            if (amount.signum() == 0) {
+                continue;
+            }
+            Instant stored = BankTransaction.storedTimestamp(transaction.getTimestamp());
+            RollupKey key = new RollupKey(LocalDate.ofInstant(stored, ZoneOffset.UTC), transaction.getCurrency());
+            totals.computeIfAbsent(key, k -> new DayTotals()).add(amount);
+        }
+        if (!totals.isEmpty()) {
+            entityManager.unwrap(Session.class).doWork(connection -> upsert(connection, totals));
+        }
+    }
+
+    /**
+     * Totals per period and currency for days in {@code [from, to)}, ordered by currency and period.
+     * {@code null} bounds and currency are not restricted.
+     */
+    public List<PeriodTotals> totals(SharedSessionContract session, LocalDate from, LocalDate to, String currency,
+                                     Granularity granularity) {
+        List<String> conditions = conditions(from, to, currency);
+        String sql = "select date_trunc('" + granularity.name().toLowerCase() + "', day)::date, currency,"
+            + " sum(income), sum(expense), sum(income_count), sum(expense_count)"
+            + " from daily_currency_rollup" + where(conditions)
+            + " group by 1, 2 order by 2, 1";
+        return session.doReturningWork(connection -> {
+            List<PeriodTotals> rows = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                bind(statement, from, to, currency);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows.add(new PeriodTotals(resultSet.getObject(1, LocalDate.class), resultSet.getString(2),
+                            resultSet.getBigDecimal(3), resultSet.getBigDecimal(4), resultSet.getLong(5),
+                            resultSet.getLong(6)));
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Net sum per currency of all days before {@code day}, the opening balance of a summary.
+     */
+    public Map<String, BigDecimal> balancesBefore(SharedSessionContract session, LocalDate day, String currency) {
+        String sql = "select currency, sum(income) + sum(expense) from daily_currency_rollup"
+            + where(conditions(null, day, currency)) + " group by currency order by currency";
+        return session.doReturningWork(connection -> {
+            Map<String, BigDecimal> balances = new LinkedHashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                bind(statement, null, day, currency);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        balances.put(resultSet.getString(1), resultSet.getBigDecimal(2));
+                    }
+                }
+            }
+            return balances;
+        });
+    }
+
+    private static void upsert(Connection connection, Map<RollupKey, DayTotals> totals) throws SQLException {
+        int size = totals.size();
+        Date[] days = new Date[size];
+        String[] currencies = new String[size];
+        BigDecimal[] income = new BigDecimal[size];
+        BigDecimal[] expense = new BigDecimal[size];
+        Long[] incomeCounts = new Long[size];
+        Long[] expenseCounts = new Long[size];
+        int i = 0;
+        for (Map.Entry<RollupKey, DayTotals> entry : totals.entrySet()) {
+            DayTotals day = entry.getValue();
+            days[i] = Date.valueOf(entry.getKey().day());
+            currencies[i] = entry.getKey().currency();
+            income[i] = day.income;
+            expense[i] = day.expense;
+            incomeCounts[i] = day.incomeCount;
+            expenseCounts[i] = day.expenseCount;
+            i++;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+            statement.setArray(1, connection.createArrayOf("date", days));
+            statement.setArray(2, connection.createArrayOf("varchar", currencies));
+            statement.setArray(3, connection.createArrayOf("numeric", income));
+            statement.setArray(4, connection.createArrayOf("numeric", expense));
+            statement.setArray(5, connection.createArrayOf("bigint", incomeCounts));
+            statement.setArray(6, connection.createArrayOf("bigint", expenseCounts));
+            statement.executeUpdate();
+        }
+    }
+
+    private static List<String> conditions(LocalDate from, LocalDate to, String currency) {
+        List<String> conditions = new ArrayList<>(3);
+        if (from != null) {
+            conditions.add("day >= ?");
+        }
+        if (to != null) {
+            conditions.add("day < ?");
+        }
+        if (currency != null) {
+            conditions.add("currency = ?");
+        }
+        return conditions;
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private static void bind(PreparedStatement statement, LocalDate from, LocalDate to, String currency)
+            throws SQLException {
+        int index = 1;
+        if (from != null) {
+            statement.setObject(index++, from);
+        }
+        if (to != null) {
+            statement.setObject(index++, to);
+        }
+        if (currency != null) {
+            statement.setString(index, currency);
+        }
+    }
+
+    private static final class DayTotals {
+
+        private BigDecimal income = BigDecimal.ZERO;
+        private BigDecimal expense = BigDecimal.ZERO;
+        private long incomeCount;
+        private long expenseCount;
+
+        private void add(BigDecimal amount) {
+            if (amount.signum() > 0) {
+                income = income.add(amount);
+                incomeCount++;
+            } else {
+                expense = expense.add(amount);
+                expenseCount++;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.acme.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.acme.config.TransactionsConfig;
+import org.acme.exception.DatabaseBusyException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the requests that work with the database at the same time to the size of the connection pool.
+ * With virtual threads nothing else limits concurrent requests, so without it every request past the
+ * pool size would queue inside the pool and fail with its acquisition timeout. The fair semaphore keeps
+ * arrival order instead. Permits are not reentrant, so work must not call back into the limiter.
+ */
+@ApplicationScoped
+public class DatabaseLimiter {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    public DatabaseLimiter(TransactionsConfig config,
+                           @ConfigProperty(name = "quarkus.datasource.jdbc.max-size", defaultValue = "20") int poolSize) {
+        TransactionsConfig.Database databaseConfig = config.database();
+        this.permits = new Semaphore(databaseConfig.maxConcurrentWork().orElse(poolSize), true);
+        this.timeoutNanos = databaseConfig.acquireTimeout().toNanos();
+    }
+
+    public <T> T call(Supplier<T> work) {
+        acquire();
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs background work that nobody waits on, so it waits for a permit as long as it takes instead of
+     * failing after the acquire timeout.
+     */
+    public <T> T callWhenAvailable(Supplier<T> work) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for the database");
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Takes a permit for work that outlives the calling method, such as a streamed response body. The
+     * permit is given back when it is closed; closing it again has no effect.
+     */
+    public Permit acquirePermit() {
+        acquire();
+        return new Permit(permits);
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new DatabaseBusyException("Database is busy, try again later");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for the database");
+        }
+    }
+
+    public static final class Permit implements AutoCloseable {
+
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
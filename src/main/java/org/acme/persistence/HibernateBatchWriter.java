@@ -0,0 +1,105 @@
+package org.acme.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.acme.data.BankTransaction;
+import org.hibernate.Session;
+
+/**
+ * Persists through Hibernate. Ids come from the pooled sequence optimizer and the INSERTs are sent
+ * as JDBC batches ({@code quarkus.hibernate-orm.jdbc.statement-batch-size}), which the PostgreSQL
+ * driver rewrites into multi-row statements. Conflict-tolerant inserts cannot be expressed through
+ * {@code persist}, so they go out as one {@code INSERT ... SELECT FROM unnest(...)} statement per chunk.
+ */
+@ApplicationScoped
+public class HibernateBatchWriter implements BankTransactionWriter {
+
+    private static final String INSERT_IGNORING_CONFLICTS_SQL = """
+        insert into bank_transaction (id, reference, transaction_timestamp, amount, currency, description)
+        select * from unnest(?::bigint[], ?::varchar[], ?::timestamptz[], ?::numeric[], ?::varchar[], ?::varchar[])
+        on conflict (reference) do nothing
+        returning reference""";
+
+    private final EntityManager entityManager;
+    private final SequenceIdAllocator idAllocator;
+
+    public HibernateBatchWriter(EntityManager entityManager, SequenceIdAllocator idAllocator) {
+        this.entityManager = entityManager;
+        this.idAllocator = idAllocator;
+    }
+
+    @Override
+    public void write(List<BankTransaction> transactions) {
+        for (BankTransaction transaction : transactions) {
+            entityManager.persist(transaction);
+        }
+        entityManager.flush();
+    }
+
+    @Override
+    public List<String> writeIgnoringConflicts(List<BankTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        long[] ids = idAllocator.allocate(transactions.size());
+        Set<String> inserted = entityManager.unwrap(Session.class)
+            .doReturningWork(connection -> insert(connection, transactions, ids));
+
+        List<String> conflicts = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            BankTransaction transaction = transactions.get(i);
+            if (inserted.contains(transaction.getReference())) {
+                transaction.id = ids[i];
+            } else {
+                conflicts.add(transaction.getReference());
+            }
+        }
+        return conflicts;
+    }
+
+    private static Set<String> insert(Connection connection, List<BankTransaction> transactions, long[] ids)
+            throws SQLException {
+        int size = transactions.size();
+        Long[] idColumn = new Long[size];
+        String[] references = new String[size];
+        String[] timestamps = new String[size];
+        String[] amounts = new String[size];
+        String[] currencies = new String[size];
+        String[] descriptions = new String[size];
+        for (int i = 0; i < size; i++) {
+            BankTransaction transaction = transactions.get(i);
+            idColumn[i] = ids[i];
+            references[i] = transaction.getReference();
+            timestamps[i] = transaction.getTimestamp().toString();
+            amounts[i] = transaction.getAmount().toPlainString();
+            currencies[i] = transaction.getCurrency();
+            descriptions[i] = transaction.getDescription();
+        }
+
+        Set<String> inserted = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_IGNORING_CONFLICTS_SQL)) {
+            statement.setArray(1, connection.createArrayOf("bigint", idColumn));
+            statement.setArray(2, connection.createArrayOf("varchar", references));
+            statement.setArray(3, connection.createArrayOf("text", timestamps));
+            statement.setArray(4, connection.createArrayOf("text", amounts));
+            statement.setArray(5, connection.createArrayOf("varchar", currencies));
+            statement.setArray(6, connection.createArrayOf("varchar", descriptions));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    inserted.add(resultSet.getString(1));
+                }
+            }
+        }
+        return inserted;
+    }
+}
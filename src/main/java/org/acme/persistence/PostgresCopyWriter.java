@@ -0,0 +1,195 @@
+package org.acme.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.acme.data.BankTransaction;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Streams rows into {@code bank_transaction} with {@code COPY FROM STDIN} in PostgreSQL's binary format,
+ * bypassing Hibernate entirely. Runs on the connection of the current transaction. Conflict-tolerant
+ * writes copy into a session-local staging table first and move the rows over with {@code ON CONFLICT}.
+ */
+@ApplicationScoped
+public class PostgresCopyWriter implements BankTransactionWriter {
+
+    private static final String COLUMNS = "id, reference, transaction_timestamp, amount, currency, description";
+    private static final String COPY_SQL = "COPY bank_transaction (" + COLUMNS + ") FROM STDIN (FORMAT BINARY)";
+    private static final String STAGING_TABLE = "bank_transaction_staging";
+    private static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE IF NOT EXISTS " + STAGING_TABLE
+        + " (LIKE bank_transaction INCLUDING DEFAULTS) ON COMMIT DELETE ROWS";
+    private static final String COPY_STAGING_SQL = "COPY " + STAGING_TABLE + " (" + COLUMNS + ") FROM STDIN (FORMAT BINARY)";
+    private static final String MOVE_STAGED_SQL = "INSERT INTO bank_transaction (" + COLUMNS + ") SELECT " + COLUMNS
+        + " FROM " + STAGING_TABLE + " ON CONFLICT (reference) DO NOTHING RETURNING reference";
+    private static final String CLEAR_STAGING_SQL = "TRUNCATE " + STAGING_TABLE;
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short FIELD_COUNT = 6;
+    private static final long POSTGRES_EPOCH_SECONDS = 946_684_800L;
+    private static final short NUMERIC_POSITIVE = 0x0000;
+    private static final short NUMERIC_NEGATIVE = 0x4000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EntityManager entityManager;
+    private final SequenceIdAllocator idAllocator;
+
+    public PostgresCopyWriter(EntityManager entityManager, SequenceIdAllocator idAllocator) {
+        this.entityManager = entityManager;
+        this.idAllocator = idAllocator;
+    }
+
+    @Override
+    public void write(List<BankTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        long[] ids = idAllocator.allocate(transactions.size());
+        entityManager.unwrap(Session.class).doWork(connection -> copy(connection, COPY_SQL, transactions, ids));
+        for (int i = 0; i < ids.length; i++) {
+            transactions.get(i).id = ids[i];
+        }
+    }
+
+    @Override
+    public List<String> writeIgnoringConflicts(List<BankTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        long[] ids = idAllocator.allocate(transactions.size());
+        Set<String> inserted = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+                copy(connection, COPY_STAGING_SQL, transactions, ids);
+                Set<String> moved = new HashSet<>();
+                try (ResultSet resultSet = statement.executeQuery(MOVE_STAGED_SQL)) {
+                    while (resultSet.next()) {
+                        moved.add(resultSet.getString(1));
+                    }
+                }
+                statement.execute(CLEAR_STAGING_SQL);
+                return moved;
+            }
+        });
+
+        List<String> conflicts = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            BankTransaction transaction = transactions.get(i);
+            if (inserted.contains(transaction.getReference())) {
+                transaction.id = ids[i];
+            } else {
+                conflicts.add(transaction.getReference());
+            }
+        }
+        return conflicts;
+    }
+
+    private void copy(Connection connection, String copySql, List<BankTransaction> transactions, long[] ids)
+            throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new PGCopyOutputStream(pgConnection, copySql), BUFFER_SIZE))) {
+            out.write(SIGNATURE);
+            out.writeInt(0);
+            out.writeInt(0);
+            for (int i = 0; i < ids.length; i++) {
+                writeRow(out, ids[i], transactions.get(i));
+            }
+            out.writeShort(-1);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("COPY into bank_transaction failed", ex);
+        }
+    }
+
+    private static void writeRow(DataOutputStream out, long id, BankTransaction transaction) throws IOException {
+        out.writeShort(FIELD_COUNT);
+        out.writeInt(8);
+        out.writeLong(id);
+        writeText(out, transaction.getReference());
+        out.writeInt(8);
+        out.writeLong(toPostgresMicros(transaction.getTimestamp()));
+        writeNumeric(out, transaction.getAmount());
+        writeText(out, transaction.getCurrency());
+        writeText(out, transaction.getDescription());
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Microseconds since the PostgreSQL epoch, rounded like the batch path so both engines store the
+     * same value.
+     */
+    static long toPostgresMicros(Instant timestamp) {
+        Instant stored = BankTransaction.storedTimestamp(timestamp);
+        return Math.addExact(
+            Math.multiplyExact(stored.getEpochSecond() - POSTGRES_EPOCH_SECONDS, 1_000_000L),
+            stored.getNano() / 1_000);
+    }
+
+    /**
+     * Encodes a numeric as PostgreSQL's base-10000 representation: digit count, weight of the first
+     * digit, sign, display scale, followed by the digits themselves.
+     */
+    static void writeNumeric(DataOutputStream out, BigDecimal value) throws IOException {
+        int scale = Math.max(value.scale(), 0);
+        String digits = value.setScale(scale).unscaledValue().abs().toString();
+
+        int integerLength = Math.max(digits.length() - scale, 0);
+        String integerPart = digits.length() > scale ? digits.substring(0, integerLength) : "";
+        String fractionPart = "0".repeat(Math.max(scale - digits.length(), 0)) + digits.substring(integerLength);
+
+        String padded = "0".repeat((4 - integerPart.length() % 4) % 4) + integerPart
+            + fractionPart + "0".repeat((4 - fractionPart.length() % 4) % 4);
+        int groupCount = padded.length() / 4;
+        int integerGroups = (integerPart.length() + 3) / 4;
+
+        int first = 0;
+        int last = groupCount - 1;
+        while (first <= last && group(padded, first) == 0) {
+            first++;
+        }
+        while (last >= first && group(padded, last) == 0) {
+            last--;
+        }
+
+        int digitCount = last - first + 1;
+        out.writeInt(8 + 2 * digitCount);
+        out.writeShort(digitCount);
+        out.writeShort(digitCount == 0 ? 0 : integerGroups - 1 - first);
+        out.writeShort(value.signum() < 0 ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE);
+        out.writeShort(scale);
+        for (int i = first; i <= last; i++) {
+            out.writeShort(group(padded, i));
+        }
+    }
+
+    private static int group(String padded, int index) {
+        return Integer.parseInt(padded, index * 4, index * 4 + 4, 10);
+    }
+}
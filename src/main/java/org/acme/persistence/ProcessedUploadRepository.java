@@ -0,0 +1,136 @@
+package org.acme.persistence;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import org.hibernate.Session;
+
+/**
+ * Records which uploads were imported, keyed by the SHA-256 of their body and by the client's
+ * {@code Idempotency-Key}. Either may be {@code null}. The SHA-256 of the body is kept in
+ * {@code body_sha256} either way, so a reused key can be checked against it.
+ */
+@ApplicationScoped
+public class ProcessedUploadRepository {
+
+    private static final String SELECT = "select fingerprint, idempotency_key, rows_imported, rows_rejected,"
+        + " imported_at, body_sha256 from processed_upload";
+
+    /**
+     * A previously imported upload.
+     */
+    public record ProcessedUpload(String fingerprint, String idempotencyKey, long rowsImported, long rowsRejected,
+                                  OffsetDateTime importedAt, @JsonIgnore String bodySha256) {
+    }
+
+    private final EntityManager entityManager;
+
+    public ProcessedUploadRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Optional<ProcessedUpload> findByIdempotencyKey(String idempotencyKey) {
+        return findOne(SELECT + " where idempotency_key = ?", idempotencyKey);
+    }
+
+    /**
+     * The upload with the given key, or else the one with the given fingerprint.
+     */
+    public Optional<ProcessedUpload> find(String fingerprint, String idempotencyKey) {
+        Optional<ProcessedUpload> byKey = idempotencyKey == null
+            ? Optional.empty()
+            : findByIdempotencyKey(idempotencyKey);
+        if (byKey.isPresent() || fingerprint == null) {
+            return byKey;
+        }
+        return findOne(SELECT + " where fingerprint = ?", fingerprint);
+    }
+
+    /**
+     * Inserts a placeholder for an upload that is about to be imported in the current transaction and
+     * returns its id, or nothing if an upload with the same fingerprint or key was already recorded. A
+     * concurrent transaction claiming the same upload waits here until the first one finishes.
+     */
+    public OptionalLong claim(String fingerprint, String idempotencyKey, String bodySha256) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "insert into processed_upload (fingerprint, idempotency_key, body_sha256, rows_imported,"
+                        + " rows_rejected) values (?, ?, ?, 0, 0) on conflict do nothing returning id")) {
+                bindNullable(statement, 1, fingerprint);
+                bindNullable(statement, 2, idempotencyKey);
+                bindNullable(statement, 3, bodySha256);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? OptionalLong.of(resultSet.getLong(1)) : OptionalLong.empty();
+                }
+            }
+        });
+    }
+
+    /**
+     * Stores the outcome of a claimed upload.
+     */
+    public void complete(long id, long rowsImported, long rowsRejected) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "update processed_upload set rows_imported = ?, rows_rejected = ?, imported_at = now() where id = ?")) {
+                statement.setLong(1, rowsImported);
+                statement.setLong(2, rowsRejected);
+                statement.setLong(3, id);
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Records an upload that was imported in transactions of its own; if another upload with the same
+     * fingerprint or key was recorded meanwhile, that one is kept.
+     */
+    public void record(String fingerprint, String idempotencyKey, String bodySha256, long rowsImported,
+                       long rowsRejected) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "insert into processed_upload (fingerprint, idempotency_key, body_sha256, rows_imported,"
+                        + " rows_rejected) values (?, ?, ?, ?, ?) on conflict do nothing")) {
+                bindNullable(statement, 1, fingerprint);
+                bindNullable(statement, 2, idempotencyKey);
+                bindNullable(statement, 3, bodySha256);
+                statement.setLong(4, rowsImported);
+                statement.setLong(5, rowsRejected);
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    private Optional<ProcessedUpload> findOne(String sql, String value) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, value);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(new ProcessedUpload(resultSet.getString(1), resultSet.getString(2),
+                        resultSet.getLong(3), resultSet.getLong(4), resultSet.getObject(5, OffsetDateTime.class),
+                        resultSet.getString(6)));
+                }
+            }
+        });
+    }
+
+    private static void bindNullable(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.acme.persistence;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.EntityManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.acme.config.TransactionsConfig;
+import org.hibernate.Session;
+
+/**
+ * Probabilistic set of stored references. A negative answer is definitive, so lookups can be skipped for
+ * references that are certainly new; a positive answer only means the database has to be asked.
+ * Until warm-up has finished every reference is reported as possibly present. Replicas cannot see each
+ * other's filters, so the filter stays off when {@code transactions.cluster.enabled} is set.
+ */
+@ApplicationScoped
+public class ReferenceBloomFilter {
+
+    private static final String SCAN_SQL = "select reference from bank_transaction";
+    private static final int SCAN_FETCH_SIZE = 10_000;
+
+    private final EntityManager entityManager;
+    private final TransactionsConfig.Duplicates.BloomFilter config;
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean ready;
+
+    public ReferenceBloomFilter(EntityManager entityManager, TransactionsConfig config) {
+        this.entityManager = entityManager;
+        this.config = config.duplicates().bloomFilter();
+        this.enabled = this.config.enabled() && !config.cluster().enabled();
+        if (this.config.enabled() && !enabled) {
+            Log.warn("Reference Bloom filter is disabled because transactions.cluster.enabled is set");
+        }
+        if (enabled) {
+            long expected = Math.max(this.config.expectedReferences(), 1);
+            double probability = this.config.falsePositiveProbability();
+            long optimalBits = (long) Math.ceil(-expected * Math.log(probability) / (Math.log(2) * Math.log(2)));
+            int words = Math.toIntExact(Math.ceilDiv(Math.max(optimalBits, 64), 64));
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = words * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+        } else {
+            this.bits = null;
+            this.bitCount = 0;
+            this.hashCount = 0;
+        }
+    }
+
+    void warmUp(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long loaded = QuarkusTransaction.requiringNew().call(() ->
+            entityManager.unwrap(Session.class).doReturningWork(this::loadStoredReferences));
+        ready = true;
+        Log.infof("Reference Bloom filter warmed with %d references (%d bits, %d hashes) in %d ms",
+            loaded, bitCount, hashCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isActive() {
+        return ready;
+    }
+
+    public boolean mightContain(String reference) {
+        if (!ready) {
+            return true;
+        }
+        long hash1 = hash(reference, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(reference, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String reference) {
+        if (bits == null) {
+            return;
+        }
+        long hash1 = hash(reference, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(reference, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    private long loadStoredReferences(Connection connection) throws SQLException {
+        long loaded = 0;
+        try (PreparedStatement statement = connection.prepareStatement(SCAN_SQL)) {
+            statement.setFetchSize(SCAN_FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    add(resultSet.getString(1));
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static long hash(String value, long seed) {
+        long hash = seed;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,66 @@
+package org.acme.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+
+import org.acme.exception.DatabaseBusyException;
+import org.hibernate.Session;
+
+/**
+ * Serializes duplicate checks of imports that store the same references, concurrent uploads to one
+ * replica as well as imports of other replicas, whenever the {@code lookup} strategy is used. Each
+ * reference is claimed with a row in {@code reference_claim}, which the claiming transaction deletes again
+ * right away. Until that transaction ends, PostgreSQL makes every other insert of the same key wait on the
+ * unique index, so an import only checks a reference once no other import can still be storing it, and
+ * imports of different references never wait for each other. Row claims do not use the shared lock table,
+ * so atomic imports of any size can hold them until they commit. When two imports of overlapping
+ * references end up waiting for each other PostgreSQL aborts one, which is answered with {@code 503}.
+ */
+@ApplicationScoped
+public class ReferenceLocks {
+
+    private static final String CLAIM_SQL = "insert into reference_claim (reference)"
+        + " select distinct reference from unnest(?::varchar[]) reference order by reference"
+        + " on conflict do nothing";
+    private static final String RELEASE_SQL = "delete from reference_claim where reference = any(?)";
+    private static final String DEADLOCK_DETECTED = "40P01";
+
+    private final EntityManager entityManager;
+
+    public ReferenceLocks(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Waits until no other open transaction has claimed any of {@code references}, and claims them for the
+     * current transaction.
+     */
+    public void lock(Collection<String> references) {
+        if (references.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            Array array = connection.createArrayOf("varchar", references.toArray());
+            try (PreparedStatement claim = connection.prepareStatement(CLAIM_SQL);
+                 PreparedStatement release = connection.prepareStatement(RELEASE_SQL)) {
+                claim.setArray(1, array);
+                claim.executeUpdate();
+                // Deleted by the same transaction, the claims stay in force for others until it ends.
+                release.setArray(1, array);
+                release.executeUpdate();
+            } catch (SQLException ex) {
+                if (DEADLOCK_DETECTED.equals(ex.getSQLState())) {
+                    throw new DatabaseBusyException("Concurrent import of the same references, try again later");
+                }
+                throw ex;
+            } finally {
+                array.free();
+            }
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package org.acme.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.acme.config.TransactionsConfig;
+import org.hibernate.Session;
+
+/**
+ * Finds which references are already stored. References are bound as a single array parameter per
+ * batch, so the statement shape and bind-parameter count stay the same for any upload size, and only
+ * the reference column is read back.
+ */
+@ApplicationScoped
+public class ReferenceLookup {
+
+    private static final String LOOKUP_SQL = "select reference from bank_transaction where reference = any(?)";
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public ReferenceLookup(EntityManager entityManager, TransactionsConfig config) {
+        this.entityManager = entityManager;
+        this.batchSize = config.duplicates().lookupBatchSize();
+    }
+
+    /**
+     * Returns the stored references in the order they appear in {@code references}.
+     */
+    public List<String> findExisting(List<String> references) {
+        if (references.isEmpty()) {
+            return List.of();
+        }
+        Set<String> existing = entityManager.unwrap(Session.class)
+            .doReturningWork(connection -> lookup(connection, references));
+        return references.stream().filter(existing::contains).toList();
+    }
+
+    private Set<String> lookup(Connection connection, List<String> references) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(LOOKUP_SQL)) {
+            for (int from = 0; from < references.size(); from += batchSize) {
+                List<String> batch = references.subList(from, Math.min(from + batchSize, references.size()));
+                Array array = connection.createArrayOf("varchar", batch.toArray());
+                try {
+                    statement.setArray(1, array);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            existing.add(resultSet.getString(1));
+                        }
+                    }
+                } finally {
+                    array.free();
+                }
+            }
+        }
+        return existing;
+    }
+}
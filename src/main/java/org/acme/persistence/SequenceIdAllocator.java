@@ -0,0 +1,71 @@
+package org.acme.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.hibernate.Session;
+
+/**
+ * Hands out {@code bank_transaction} ids outside of Hibernate without colliding with it.
+ * Each {@code nextval} reserves the block {@code [value, value + increment)}, which is the
+ * same interpretation the {@code pooled-lo} optimizer (Quarkus' default) applies to the shared sequence.
+ */
+@ApplicationScoped
+public class SequenceIdAllocator {
+
+    static final String SEQUENCE_NAME = "bank_transaction_seq";
+
+    private static final String INCREMENT_QUERY =
+        "select increment_by from pg_sequences where schemaname = current_schema() and sequencename = ?";
+    private static final String NEXT_VALUES_QUERY =
+        "select nextval('" + SEQUENCE_NAME + "') from generate_series(1, ?)";
+
+    private final EntityManager entityManager;
+    private volatile long increment;
+
+    public SequenceIdAllocator(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public long[] allocate(int count) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> allocate(connection, count));
+    }
+
+    private long[] allocate(Connection connection, int count) throws SQLException {
+        long blockSize = increment(connection);
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            int blocks = (int) Math.ceilDiv(count - filled, blockSize);
+            try (PreparedStatement statement = connection.prepareStatement(NEXT_VALUES_QUERY)) {
+                statement.setInt(1, blocks);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next() && filled < count) {
+                        long low = resultSet.getLong(1);
+                        for (long id = low; id < low + blockSize && filled < count; id++) {
+                            ids[filled++] = id;
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private long increment(Connection connection) throws SQLException {
+        if (increment == 0) {
+            try (PreparedStatement statement = connection.prepareStatement(INCREMENT_QUERY)) {
+                statement.setString(1, SEQUENCE_NAME);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    increment = resultSet.next() ? resultSet.getLong(1) : 1;
+                }
+            }
+        }
+        return increment;
+    }
+}
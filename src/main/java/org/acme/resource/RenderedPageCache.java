@@ -0,0 +1,89 @@
+package org.acme.resource;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.acme.config.TransactionsConfig;
+import org.acme.service.TransactionFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Least recently used cache of rendered listing pages for one version of the data. The first access
+ * with a newer version drops every page, so nothing rendered before an import is served after it.
+ */
+@ApplicationScoped
+public class RenderedPageCache {
+
+    record PageKey(String cursor, int size, TransactionFilter filter) {
+    }
+
+    record CachedPage(byte[] html, byte[] gzipped) {
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<PageKey, CachedPage> pages;
+    private final boolean gzip;
+    private long version;
+
+    public RenderedPageCache(TransactionsConfig config) {
+        TransactionsConfig.Listing.Cache cacheConfig = config.listing().cache();
+        this.gzip = cacheConfig.gzip();
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, CachedPage> eldest) {
+                return size() > cacheConfig.maxPages();
+            }
+        };
+    }
+
+    CachedPage get(PageKey key, long version) {
+        lock.lock();
+        try {
+            evictOlderThan(version);
+            return pages.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Encodes and caches the page. Pages rendered for an outdated version are returned but not kept.
+     */
+    CachedPage put(PageKey key, long version, String html) {
+        byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
+        CachedPage page = new CachedPage(bytes, gzip ? gzip(bytes) : null);
+        lock.lock();
+        try {
+            evictOlderThan(version);
+            if (version == this.version) {
+                pages.put(key, page);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return page;
+    }
+
+    private void evictOlderThan(long version) {
+        if (version > this.version) {
+            pages.clear();
+            this.version = version;
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
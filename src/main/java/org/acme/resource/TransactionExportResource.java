@@ -0,0 +1,79 @@
+package org.acme.resource;
+
+import io.quarkus.logging.Log;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.acme.exception.TransactionValidationException;
+import org.acme.persistence.DatabaseLimiter;
+import org.acme.service.TransactionExportService;
+import org.acme.service.TransactionExportService.Format;
+import org.acme.service.TransactionFilter;
+
+@Path("/transactions/export")
+public class TransactionExportResource {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final TransactionExportService exportService;
+    private final DatabaseLimiter databaseLimiter;
+
+    public TransactionExportResource(TransactionExportService exportService, DatabaseLimiter databaseLimiter) {
+        this.exportService = exportService;
+        this.databaseLimiter = databaseLimiter;
+    }
+
+    /**
+     * Streams matching transactions oldest first. The format is taken from {@code format}
+     * ({@code ndjson} or {@code json}), otherwise from the {@code Accept} header, defaulting to NDJSON.
+     * The export keeps a connection for as long as it streams, so it holds a database permit from before
+     * the response starts, when it can still be answered with {@code 503}, until the last row is written.
+     * The permit is also given back when the response ends without the body being written, as for
+     * {@code HEAD} requests, failed responses and clients that disconnect first.
+     */
+    @GET
+    @Produces({NDJSON, MediaType.APPLICATION_JSON})
+    public Response exportTransactions(@QueryParam("from") String from, @QueryParam("to") String to,
+                                       @QueryParam("currency") String currency, @QueryParam("type") String type,
+                                       @QueryParam("format") String format,
+                                       @HeaderParam(HttpHeaders.ACCEPT) String accept,
+                                       @Context RoutingContext routingContext) {
+        Log.info("Exporting transactions");
+        TransactionFilter filter = TransactionFilter.of(from, to, currency, type);
+        Format exportFormat = resolveFormat(format, accept);
+        DatabaseLimiter.Permit permit = databaseLimiter.acquirePermit();
+        routingContext.addEndHandler(ended -> permit.close());
+        StreamingOutput body = output -> {
+            try (permit) {
+                exportService.export(filter, exportFormat, output);
+            }
+        };
+        return Response.ok(body)
+                .type(exportFormat == Format.JSON ? MediaType.APPLICATION_JSON : NDJSON)
+                .build();
+    }
+
+    private static Format resolveFormat(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            return switch (format.trim().toLowerCase()) {
+                case "ndjson" -> Format.NDJSON;
+                case "json" -> Format.JSON;
+                default -> throw TransactionValidationException.withMessage(
+                        "Unsupported export format '%s', expected 'ndjson' or 'json'".formatted(format));
+            };
+        }
+        if (accept != null && accept.contains(MediaType.APPLICATION_JSON) && !accept.contains(NDJSON)) {
+            return Format.JSON;
+        }
+        return Format.NDJSON;
+    }
+}
@@ -2,54 +2,353 @@ package org.acme.resource;
 
 import io.quarkus.logging.Log;
 import io.quarkus.qute.Template;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.enterprise.event.Observes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.List;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.UUID;
 
-import org.acme.data.BankTransaction;
+import org.acme.config.TransactionsConfig;
+import org.acme.exception.ApiError;
 import org.acme.exception.TransactionValidationException;
+import org.acme.metrics.PhaseTimings;
+import org.acme.metrics.TransactionMetrics;
+import org.acme.persistence.DatabaseLimiter;
+import org.acme.persistence.ProcessedUploadRepository.ProcessedUpload;
+import org.acme.service.ImportJobService;
+import org.acme.service.ImportJobStatus;
+import org.acme.service.ImportMode;
+import org.acme.service.ImportRejectsStore;
+import org.acme.service.ImportReport;
+import org.acme.service.ImportResult;
+import org.acme.service.PageRequest;
+import org.acme.service.TransactionPage;
+import org.acme.service.TransactionFilter;
 import org.acme.service.TransactionService;
-import org.acme.service.TransactionViewService;
-import org.acme.service.TransactionViewService.TransactionRow;
+import org.acme.service.TransactionsVersion;
+import org.acme.service.UploadDecoder;
+import org.acme.service.UploadFingerprint;
+import org.acme.service.UploadSpool;
 
 @Path("/transactions")
 public class TransactionResource {
 
+    private static final MediaType HTML_UTF8 = MediaType.TEXT_HTML_TYPE.withCharset(StandardCharsets.UTF_8.name());
+    private static final CacheControl REVALIDATE = CacheControl.valueOf("no-cache");
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final Template transactions;
     private final TransactionService transactionService;
-    private final TransactionViewService viewService;
+    private final ImportJobService importJobService;
+    private final ImportRejectsStore rejectsStore;
+    private final UploadDecoder uploadDecoder;
+    private final UploadBodyReader bodyReader;
+    private final UploadSpool uploadSpool;
+    private final DatabaseLimiter databaseLimiter;
+    private final TransactionMetrics metrics;
+    private final TransactionsVersion transactionsVersion;
+    private final RenderedPageCache pageCache;
+    private final TransactionsConfig.Listing listingConfig;
+    private final boolean fingerprintEnabled;
 
     public TransactionResource(Template transactions, TransactionService transactionService, 
-                              TransactionViewService viewService) {
+                              ImportJobService importJobService, ImportRejectsStore rejectsStore,
+                              UploadDecoder uploadDecoder, UploadBodyReader bodyReader, UploadSpool uploadSpool,
+                              DatabaseLimiter databaseLimiter, TransactionMetrics metrics,
+                              TransactionsVersion transactionsVersion, RenderedPageCache pageCache,
+                              TransactionsConfig config) {
         this.transactions = transactions;
         this.transactionService = transactionService;
-        this.viewService = viewService;
+        this.importJobService = importJobService;
+        this.rejectsStore = rejectsStore;
+        this.uploadDecoder = uploadDecoder;
+        this.bodyReader = bodyReader;
+        this.uploadSpool = uploadSpool;
+        this.databaseLimiter = databaseLimiter;
+        this.metrics = metrics;
+        this.transactionsVersion = transactionsVersion;
+        this.pageCache = pageCache;
+        this.listingConfig = config.listing();
+        this.fingerprintEnabled = config.importing().fingerprint().enabled();
+    }
+
+    /**
+     * Loads and parses the page template while the application starts instead of on the first request.
+     */
+    void warmUp(@Observes StartupEvent event) {
+        transactions.getFragment("rows");
     }
 
     @GET
     @Produces(MediaType.TEXT_HTML)
-    public String listTransactions() {
-        Log.info("Listing all transactions");
-        List<BankTransaction> entities = transactionService.getAllTransactionsSortedByTimestamp();
-        List<TransactionRow> rows = viewService.buildTransactionRows(entities);
-        return transactions.data("transactions", rows).render();
+    @RunOnVirtualThread
+    public Response listTransactions(@QueryParam("size") Integer size, @QueryParam("cursor") String cursor,
+                                     @QueryParam("from") String from, @QueryParam("to") String to,
+                                     @QueryParam("currency") String currency, @QueryParam("type") String type,
+                                     @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
+                                     @Context Request httpRequest) {
+        Log.info("Listing transactions");
+        PhaseTimings timings = new PhaseTimings();
+        TransactionFilter filter = TransactionFilter.of(from, to, currency, type);
+        PageRequest request = transactionService.pageRequest(cursor, size, filter);
+        boolean streaming = listingConfig.renderMode() == TransactionsConfig.Listing.RenderMode.STREAMING;
+        boolean cached = !streaming && listingConfig.cache().enabled();
+        boolean gzip = cached && listingConfig.cache().gzip() && acceptsGzip(acceptEncoding);
+
+        TransactionsVersion.Snapshot version = transactionsVersion.current();
+        EntityTag etag = new EntityTag(gzip ? version.tag() + "-gzip" : version.tag());
+        // Last-Modified has one-second precision, so an import later in the same second would keep it; only the
+        // ETag identifies the version and If-Modified-Since is not evaluated.
+        Response.ResponseBuilder notModified = httpRequest.evaluatePreconditions(etag);
+        if (notModified != null) {
+            metrics.listingServed("not_modified");
+            return withValidators(notModified, version, etag).build();
+        }
+
+        if (streaming) {
+            String highlightReference = databaseLimiter.call(
+                    () -> timings.time("highlight", transactionService::findLargestIncomeReference));
+            return withValidators(Response.ok(streamPage(request, highlightReference, timings)), version, etag).build();
+        }
+        if (!cached) {
+            metrics.listingServed("rendered");
+            return withValidators(Response.ok(renderPage(request, timings)), version, etag).build();
+        }
+
+        RenderedPageCache.PageKey key = new RenderedPageCache.PageKey(
+                request.firstPage() ? null : cursor, request.size(), filter);
+        RenderedPageCache.CachedPage page = pageCache.get(key, version.value());
+        if (page == null) {
+            page = pageCache.put(key, version.value(), renderPage(request, timings));
+            metrics.listingServed("rendered");
+        } else {
+            metrics.listingServed("cached");
+        }
+        Response.ResponseBuilder response = gzip
+                ? Response.ok(page.gzipped()).header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                : Response.ok(page.html());
+        return withValidators(response.type(HTML_UTF8), version, etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
     }
 
     @POST
     @Consumes("text/csv")
-    public Response uploadTransactions(InputStream csvStream) {
+    @RunOnVirtualThread
+    public Response uploadTransactions(InputStream csvStream, @QueryParam("mode") String mode,
+                                       @HeaderParam("Prefer") String prefer,
+                                       @HeaderParam(HttpHeaders.CONTENT_ENCODING) String contentEncoding,
+                                       @HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey,
+                                       @Context HttpServerRequest request) {
         Log.info("Uploading transactions from CSV");
         if (csvStream == null) {
             throw TransactionValidationException.withMessage("CSV payload is required");
         }
-        transactionService.importCsv(csvStream);
-        return Response.status(Response.Status.CREATED).build();
+        ImportMode importMode = ImportMode.of(mode);
+        UploadDecoder.Encoding encoding = uploadDecoder.encoding(contentEncoding);
+        validateIdempotencyKey(idempotencyKey);
+        boolean async = prefer != null && prefer.contains("respond-async");
+        // A reused Idempotency-Key is only replayed for the same body, so keyed uploads are hashed as well.
+        boolean identified = fingerprintEnabled || idempotencyKey != null;
+        ImportResult result;
+        // Spooled bodies are read before any database permit is taken, so they use readers of their own.
+        try (InputStream body = async || identified
+                ? bodyReader.openForSpool(csvStream, request)
+                : bodyReader.open(csvStream, request)) {
+            if (async) {
+                ImportJobService.Submission submission = importJobService.submit(body, encoding, importMode,
+                        idempotencyKey);
+                if (submission.previousImport() != null) {
+                    return replayed(submission.previousImport());
+                }
+                ImportJobStatus job = submission.job();
+                return Response.accepted(job)
+                        .location(URI.create("/transactions/imports/" + job.id()))
+                        .type(MediaType.APPLICATION_JSON)
+                        .build();
+            }
+            if (identified) {
+                // The body is stored before a database permit is taken, so slow clients do not hold one.
+                UploadSpool.SpooledUpload spooled = uploadSpool.spool(body, true);
+                try (InputStream stored = Files.newInputStream(spooled.file())) {
+                    result = importNow(stored, encoding, importMode,
+                            new UploadFingerprint(spooled.fingerprint(), idempotencyKey, fingerprintEnabled));
+                } finally {
+                    uploadSpool.delete(spooled.file());
+                }
+            } else {
+                result = importNow(body, encoding, importMode, null);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (result.replayed()) {
+            return replayed(result.previousImport());
+        }
+        if (importMode == ImportMode.STRICT) {
+            return Response.status(Response.Status.CREATED).build();
+        }
+        String rejectsLocation = result.rejects() == null
+                ? null
+                : rejectsStore.publish(UUID.randomUUID().toString(), result.rejects());
+        return Response.status(Response.Status.CREATED)
+                .entity(ImportReport.of(result, rejectsLocation))
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    @GET
+    @Path("/imports/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getImportJob(@PathParam("id") String id) {
+        return importJobService.find(id)
+                .map(job -> Response.ok(job).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND)
+                        .entity(ApiError.of("Import job not found"))
+                        .build());
+    }
+
+    @GET
+    @Path("/imports/{id}/rejects")
+    @Produces("text/csv")
+    public Response getImportRejects(@PathParam("id") String id) {
+        return rejectsStore.find(id)
+                .map(file -> Response.ok(file.toFile())
+                        .type("text/csv; charset=UTF-8")
+                        .header("Content-Disposition", "attachment; filename=\"rejects-" + id + ".csv\"")
+                        .build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND)
+                        .entity(ApiError.of("Rejected lines not found"))
+                        .type(MediaType.APPLICATION_JSON)
+                        .build());
+    }
+
+    private ImportResult importNow(InputStream body, UploadDecoder.Encoding encoding, ImportMode importMode,
+                                   UploadFingerprint fingerprint) {
+        return databaseLimiter.call(() -> {
+            try (InputStream decoded = uploadDecoder.decode(body, encoding)) {
+                return transactionService.importCsv(decoded, importMode, fingerprint, rows -> {
+                });
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private static void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw TransactionValidationException.withMessage(
+                    "%s must be between 1 and %d characters".formatted(IDEMPOTENCY_KEY, MAX_IDEMPOTENCY_KEY_LENGTH));
+        }
+    }
+
+    /**
+     * Answers a repeated upload with the outcome of the import that stored it.
+     */
+    private static Response replayed(ProcessedUpload previousImport) {
+        return Response.ok(previousImport)
+                .header("Idempotent-Replayed", "true")
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private String renderPage(PageRequest request, PhaseTimings timings) {
+        TransactionPage page = databaseLimiter.call(() -> {
+            String highlightReference = timings.time("highlight", transactionService::findLargestIncomeReference);
+            return timings.time("query", () -> transactionService.getTransactionPage(request, highlightReference));
+        });
+        String html = timings.time("render", () -> transactions.data("transactions", page.rows())
+                .data("filter", request.filter())
+                .data("pageSize", page.pageSize())
+                .data("nextCursor", page.nextCursor())
+                .data("firstPage", request.firstPage())
+                .render());
+        metrics.listingRendered("buffered", timings);
+        return html;
+    }
+
+    private static Response.ResponseBuilder withValidators(Response.ResponseBuilder response,
+                                                           TransactionsVersion.Snapshot version, EntityTag etag) {
+        return response.tag(etag)
+                .lastModified(Date.from(version.lastModified()))
+                .cacheControl(REVALIDATE);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private StreamingOutput streamPage(PageRequest request, String highlightReference, PhaseTimings timings) {
+        return output -> {
+            Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            writer.write(transactions.getFragment("page_start").data("filter", request.filter()).render());
+            writer.flush();
+
+            boolean[] tableStarted = {false};
+            long streamStart = System.nanoTime();
+            String nextCursor = databaseLimiter.call(() -> transactionService.streamTransactionPage(request,
+                    listingConfig.streamBatchSize(), highlightReference, rows -> timings.time("render", () -> {
+                try {
+                    if (!tableStarted[0]) {
+                        writer.write(transactions.getFragment("table_start").instance().render());
+                        tableStarted[0] = true;
+                    }
+                    writer.write(transactions.getFragment("rows").data("transactions", rows).render());
+                    writer.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            })));
+            timings.add("query", System.nanoTime() - streamStart - timings.nanos("render"));
+
+            writer.write(transactions.getFragment(tableStarted[0] ? "table_end" : "empty_state")
+                    .data("filter", request.filter())
+                    .render());
+            writer.write(transactions.getFragment("pagination")
+                    .data("filter", request.filter())
+                    .data("pageSize", request.size())
+                    .data("nextCursor", nextCursor)
+                    .data("firstPage", request.firstPage())
+                    .render());
+            writer.write(transactions.getFragment("page_end").instance().render());
+            writer.flush();
+            metrics.listingRendered("streaming", timings);
+        };
     }
 }
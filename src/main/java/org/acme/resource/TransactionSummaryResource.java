@@ -0,0 +1,72 @@
+package org.acme.resource;
+
+import io.quarkus.logging.Log;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import org.acme.exception.TransactionValidationException;
+import org.acme.persistence.DailyRollupRepository.Granularity;
+import org.acme.service.TransactionFilter;
+import org.acme.service.TransactionSummary;
+import org.acme.service.TransactionSummaryService;
+
+@Path("/transactions/summary")
+public class TransactionSummaryResource {
+
+    private final TransactionSummaryService summaryService;
+
+    public TransactionSummaryResource(TransactionSummaryService summaryService) {
+        this.summaryService = summaryService;
+    }
+
+    /**
+     * Totals and running balances per currency for UTC days in {@code [from, to)}, grouped by
+     * {@code granularity} ({@code day}, {@code month} or {@code year}, defaulting to {@code month}).
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public TransactionSummary getSummary(@QueryParam("from") String from, @QueryParam("to") String to,
+                                         @QueryParam("currency") String currency,
+                                         @QueryParam("granularity") String granularity) {
+        Log.info("Summarizing transactions");
+        LocalDate fromDay = parseDay("from", from);
+        LocalDate toDay = parseDay("to", to);
+        if (fromDay != null && toDay != null && !fromDay.isBefore(toDay)) {
+            throw TransactionValidationException.withMessage("Parameter 'from' must be before 'to'");
+        }
+        String currencyCode = TransactionFilter.of(null, null, currency, null).currency();
+        return summaryService.summarize(fromDay, toDay, currencyCode, resolveGranularity(granularity));
+    }
+
+    private static LocalDate parseDay(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException ex) {
+            throw TransactionValidationException.withMessage(
+                "Invalid '%s' date '%s', expected ISO-8601 like 2024-01-15".formatted(name, value));
+        }
+    }
+
+    private static Granularity resolveGranularity(String granularity) {
+        if (granularity == null || granularity.isBlank()) {
+            return Granularity.MONTH;
+        }
+        return switch (granularity.trim().toLowerCase(Locale.ROOT)) {
+            case "day" -> Granularity.DAY;
+            case "month" -> Granularity.MONTH;
+            case "year" -> Granularity.YEAR;
+            default -> throw TransactionValidationException.withMessage(
+                "Unsupported granularity '%s', expected 'day', 'month' or 'year'".formatted(granularity));
+        };
+    }
+}
@@ -0,0 +1,207 @@
+package org.acme.resource;
+
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.acme.config.TransactionsConfig;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes request bodies safe to read on virtual threads. The blocking request stream waits for data with
+ * {@code Object.wait} inside a monitor, which pins the carrier thread for as long as the client takes to
+ * send the next bytes. On a virtual thread the body is therefore read on a platform thread and handed
+ * over through a small queue, which parks the virtual thread without pinning it. Bodies imported under a
+ * {@link org.acme.persistence.DatabaseLimiter} permit have as many reader threads as there are permits;
+ * bodies spooled to disk without a permit use a separate pool of the same size, so slow spooled uploads
+ * never hold up imports that already have a connection. Further uploads wait for a free reader. A client
+ * that sends nothing for {@code transactions.import.read-timeout} has its connection closed, which ends
+ * the blocked read and frees the reader.
+ */
+@ApplicationScoped
+public class UploadBodyReader {
+
+    private final ExecutorService importReaders;
+    private final ExecutorService spoolReaders;
+    private final long readTimeoutNanos;
+
+    public UploadBodyReader(TransactionsConfig config,
+                            @ConfigProperty(name = "quarkus.datasource.jdbc.max-size", defaultValue = "20") int poolSize) {
+        int readers = config.database().maxConcurrentWork().orElse(poolSize);
+        this.importReaders = Executors.newFixedThreadPool(readers,
+            Thread.ofPlatform().name("upload-reader-", 0).daemon().factory());
+        this.spoolReaders = Executors.newFixedThreadPool(readers,
+            Thread.ofPlatform().name("upload-spool-reader-", 0).daemon().factory());
+        this.readTimeoutNanos = config.importing().readTimeout().toNanos();
+    }
+
+    /**
+     * Opens a body that is only read while holding a database permit.
+     */
+    public InputStream open(InputStream body, HttpServerRequest request) {
+        return open(body, request, importReaders);
+    }
+
+    /**
+     * Opens a body that is read without a database permit, to be stored on disk.
+     */
+    public InputStream openForSpool(InputStream body, HttpServerRequest request) {
+        return open(body, request, spoolReaders);
+    }
+
+    private InputStream open(InputStream body, HttpServerRequest request, ExecutorService readers) {
+        if (!Thread.currentThread().isVirtual()) {
+            return body;
+        }
+        return new OffloadedInputStream(body, readers, readTimeoutNanos, () -> request.connection().close());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        importReaders.shutdownNow();
+        spoolReaders.shutdownNow();
+    }
+
+    private static final class OffloadedInputStream extends InputStream {
+
+        private static final int BUFFER_SIZE = 64 * 1024;
+        private static final byte[] END = new byte[0];
+
+        private final InputStream source;
+        private final ExecutorService readers;
+        private final long readTimeoutNanos;
+        private final Runnable abort;
+        private final BlockingQueue<Object> buffers = new ArrayBlockingQueue<>(4);
+        private Future<?> pump;
+        private volatile boolean closed;
+        private volatile boolean started;
+        private byte[] current;
+        private int position;
+        private boolean finished;
+
+        private OffloadedInputStream(InputStream source, ExecutorService readers, long readTimeoutNanos,
+                                     Runnable abort) {
+            this.source = source;
+            this.readers = readers;
+            this.readTimeoutNanos = readTimeoutNanos;
+            this.abort = abort;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, bytes, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            if (pump != null) {
+                pump.cancel(true);
+            }
+            source.close();
+        }
+
+        /**
+         * Makes unread bytes available, starting the pump on the first read so rejected requests never
+         * occupy a reader.
+         */
+        private boolean fill() throws IOException {
+            if (pump == null) {
+                pump = readers.submit(this::pump);
+            }
+            while (current == null || position == current.length) {
+                if (finished) {
+                    return false;
+                }
+                Object next;
+                try {
+                    next = buffers.poll(readTimeoutNanos, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading the request body");
+                }
+                if (next == null) {
+                    if (!started) {
+                        // still waiting for a free reader, not for the client
+                        continue;
+                    }
+                    // Interrupting the reader does not end a read blocked on the request stream, closing
+                    // the connection does.
+                    abort.run();
+                    throw new SocketTimeoutException("Timed out reading the request body");
+                }
+                if (next instanceof IOException failure) {
+                    finished = true;
+                    throw new IOException(failure.getMessage(), failure);
+                }
+                current = (byte[]) next;
+                position = 0;
+                finished = current == END;
+            }
+            return true;
+        }
+
+        private void pump() {
+            started = true;
+            try {
+                while (!closed) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    // hands over whatever arrived, so the timeout measures idle time, not throughput
+                    int read = source.read(buffer, 0, BUFFER_SIZE);
+                    if (read < 0) {
+                        hand(END);
+                        return;
+                    }
+                    if (read == 0) {
+                        continue;
+                    }
+                    hand(read == BUFFER_SIZE ? buffer : Arrays.copyOf(buffer, read));
+                }
+            } catch (IOException ex) {
+                hand(ex);
+            } catch (RuntimeException ex) {
+                hand(new IOException(ex));
+            }
+        }
+
+        private void hand(Object buffer) {
+            try {
+                while (!closed) {
+                    if (buffers.offer(buffer, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package org.acme.service;
+
+import org.acme.data.BankTransaction;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable run of transactions sorted by {@code (timestamp, id)} ascending and stored column by
+ * column in primitive arrays. Timestamps are epoch seconds plus nanoseconds, amounts are unscaled
+ * longs at the column scale, currencies are indexes into the read model's code table and references
+ * and descriptions are UTF-8 bytes in one pool each, addressed through offsets.
+ */
+final class ColumnarSegment {
+
+    // bank_transaction.amount is numeric(19,2), so every stored amount is an exact long at this scale
+    static final int AMOUNT_SCALE = 2;
+
+    static final int MAX_ROWS = 1 << 26;
+    static final int MAX_POOL_BYTES = 1 << 30;
+
+    private static final int ROW_BYTES = Long.BYTES * 3 + Integer.BYTES * 3 + Short.BYTES;
+
+    private final int size;
+    private final long[] epochSeconds;
+    private final int[] nanos;
+    private final long[] ids;
+    private final long[] amounts;
+    private final short[] currencies;
+    private final int[] referenceOffsets;
+    private final byte[] references;
+    private final int[] descriptionOffsets;
+    private final byte[] descriptions;
+    private final int largestIncome;
+
+    private ColumnarSegment(Builder builder) {
+        this.size = builder.size;
+        this.epochSeconds = Arrays.copyOf(builder.epochSeconds, size);
+        this.nanos = Arrays.copyOf(builder.nanos, size);
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.amounts = Arrays.copyOf(builder.amounts, size);
+        this.currencies = Arrays.copyOf(builder.currencies, size);
+        this.referenceOffsets = Arrays.copyOf(builder.referenceOffsets, size + 1);
+        this.references = Arrays.copyOf(builder.references, referenceOffsets[size]);
+        this.descriptionOffsets = Arrays.copyOf(builder.descriptionOffsets, size + 1);
+        this.descriptions = Arrays.copyOf(builder.descriptions, descriptionOffsets[size]);
+
+        int largest = -1;
+        for (int row = 0; row < size; row++) {
+            if (amounts[row] > 0 && (largest < 0 || outranksIncome(this, row, this, largest))) {
+                largest = row;
+            }
+        }
+        this.largestIncome = largest;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    long epochSecond(int row) {
+        return epochSeconds[row];
+    }
+
+    int nano(int row) {
+        return nanos[row];
+    }
+
+    Instant timestamp(int row) {
+        return Instant.ofEpochSecond(epochSeconds[row], nanos[row]);
+    }
+
+    long unscaledAmount(int row) {
+        return amounts[row];
+    }
+
+    BigDecimal amount(int row) {
+        return BigDecimal.valueOf(amounts[row], AMOUNT_SCALE);
+    }
+
+    int currency(int row) {
+        return currencies[row];
+    }
+
+    String reference(int row) {
+        int start = referenceOffsets[row];
+        return new String(references, start, referenceOffsets[row + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The description, or {@code null}; the CSV parser never produces empty descriptions, so an empty
+     * slice stands for a missing one.
+     */
+    String description(int row) {
+        int start = descriptionOffsets[row];
+        int length = descriptionOffsets[row + 1] - start;
+        return length == 0 ? null : new String(descriptions, start, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Row of the largest income in this segment, or {@code -1} if it holds no income.
+     */
+    int largestIncome() {
+        return largestIncome;
+    }
+
+    /**
+     * Number of rows ordered before the given position.
+     */
+    int countBefore(long epochSecond, int nano, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(epochSeconds[middle], nanos[middle], ids[middle], epochSecond, nano, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    boolean contains(long epochSecond, int nano, long id) {
+        int row = countBefore(epochSecond, nano, id);
+        return row < size && ids[row] == id && epochSeconds[row] == epochSecond && nanos[row] == nano;
+    }
+
+    long memoryBytes() {
+        return (long) size * ROW_BYTES + references.length + descriptions.length;
+    }
+
+    boolean canMergeWith(ColumnarSegment other) {
+        return (long) size + other.size <= MAX_ROWS
+            && (long) references.length + other.references.length <= MAX_POOL_BYTES
+            && (long) descriptions.length + other.descriptions.length <= MAX_POOL_BYTES;
+    }
+
+    static ColumnarSegment merge(ColumnarSegment left, ColumnarSegment right) {
+        Builder builder = new Builder(left.size + right.size,
+            left.references.length + right.references.length,
+            left.descriptions.length + right.descriptions.length);
+        int l = 0;
+        int r = 0;
+        while (l < left.size && r < right.size) {
+            if (compare(left, l, right, r) <= 0) {
+                builder.addRow(left, l++);
+            } else {
+                builder.addRow(right, r++);
+            }
+        }
+        while (l < left.size) {
+            builder.addRow(left, l++);
+        }
+        while (r < right.size) {
+            builder.addRow(right, r++);
+        }
+        return builder.build();
+    }
+
+    /**
+     * This segment without the rows that are also present in any of {@code others}.
+     */
+    ColumnarSegment without(List<ColumnarSegment> others) {
+        Builder builder = new Builder(size, references.length, descriptions.length);
+        for (int row = 0; row < size; row++) {
+            boolean present = false;
+            for (ColumnarSegment other : others) {
+                if (other.contains(epochSeconds[row], nanos[row], ids[row])) {
+                    present = true;
+                    break;
+                }
+            }
+            if (!present) {
+                builder.addRow(this, row);
+            }
+        }
+        return builder.size == size ? this : builder.build();
+    }
+
+    static int compare(ColumnarSegment left, int leftRow, ColumnarSegment right, int rightRow) {
+        return compare(left.epochSeconds[leftRow], left.nanos[leftRow], left.ids[leftRow],
+            right.epochSeconds[rightRow], right.nanos[rightRow], right.ids[rightRow]);
+    }
+
+    /**
+     * Same precedence as {@link LargestIncome}: larger amount first, then newer timestamp, then higher id.
+     */
+    static boolean outranksIncome(ColumnarSegment left, int leftRow, ColumnarSegment right, int rightRow) {
+        int byAmount = Long.compare(left.amounts[leftRow], right.amounts[rightRow]);
+        return byAmount > 0 || (byAmount == 0 && compare(left, leftRow, right, rightRow) > 0);
+    }
+
+    private static int compare(long leftSecond, int leftNano, long leftId, long rightSecond, int rightNano,
+                               long rightId) {
+        int bySecond = Long.compare(leftSecond, rightSecond);
+        if (bySecond != 0) {
+            return bySecond;
+        }
+        int byNano = Integer.compare(leftNano, rightNano);
+        return byNano != 0 ? byNano : Long.compare(leftId, rightId);
+    }
+
+    /**
+     * Appends rows, which must arrive in {@code (timestamp, id)} order.
+     */
+    static final class Builder {
+
+        private int size;
+        private long[] epochSeconds;
+        private int[] nanos;
+        private long[] ids;
+        private long[] amounts;
+        private short[] currencies;
+        private int[] referenceOffsets;
+        private byte[] references;
+        private int[] descriptionOffsets;
+        private byte[] descriptions;
+
+        Builder(int rows, int referenceBytes, int descriptionBytes) {
+            int capacity = Math.max(rows, 16);
+            this.epochSeconds = new long[capacity];
+            this.nanos = new int[capacity];
+            this.ids = new long[capacity];
+            this.amounts = new long[capacity];
+            this.currencies = new short[capacity];
+            this.referenceOffsets = new int[capacity + 1];
+            this.references = new byte[Math.max(referenceBytes, 64)];
+            this.descriptionOffsets = new int[capacity + 1];
+            this.descriptions = new byte[Math.max(descriptionBytes, 64)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isFull() {
+            return size >= MAX_ROWS
+                || referenceOffsets[size] >= MAX_POOL_BYTES - 4096
+                || descriptionOffsets[size] >= MAX_POOL_BYTES - 4096;
+        }
+
+        /**
+         * Adds a row as PostgreSQL stores it: the timestamp rounded to microseconds and the amount
+         * rounded to {@link #AMOUNT_SCALE} decimals.
+         */
+        void add(long id, Instant timestamp, BigDecimal amount, int currency, String reference, String description) {
+            Instant stored = BankTransaction.storedTimestamp(timestamp);
+            long unscaled = amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            byte[] descriptionBytes = description == null
+                ? new byte[0]
+                : description.getBytes(StandardCharsets.UTF_8);
+            add(stored.getEpochSecond(), stored.getNano(), id, unscaled, (short) currency,
+                reference.getBytes(StandardCharsets.UTF_8), descriptionBytes);
+        }
+
+        void addRow(ColumnarSegment source, int row) {
+            ensureRowCapacity();
+            epochSeconds[size] = source.epochSeconds[row];
+            nanos[size] = source.nanos[row];
+            ids[size] = source.ids[row];
+            amounts[size] = source.amounts[row];
+            currencies[size] = source.currencies[row];
+            int referenceStart = source.referenceOffsets[row];
+            int descriptionStart = source.descriptionOffsets[row];
+            appendReference(source.references, referenceStart, source.referenceOffsets[row + 1] - referenceStart);
+            appendDescription(source.descriptions, descriptionStart,
+                source.descriptionOffsets[row + 1] - descriptionStart);
+            size++;
+        }
+
+        ColumnarSegment build() {
+            return new ColumnarSegment(this);
+        }
+
+        private void add(long epochSecond, int nano, long id, long amount, short currency, byte[] reference,
+                         byte[] description) {
+            ensureRowCapacity();
+            epochSeconds[size] = epochSecond;
+            nanos[size] = nano;
+            ids[size] = id;
+            amounts[size] = amount;
+            currencies[size] = currency;
+            appendReference(reference, 0, reference.length);
+            appendDescription(description, 0, description.length);
+            size++;
+        }
+
+        private void ensureRowCapacity() {
+            if (size < ids.length) {
+                return;
+            }
+            int capacity = ids.length * 2;
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            referenceOffsets = Arrays.copyOf(referenceOffsets, capacity + 1);
+            descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity + 1);
+        }
+
+        private void appendReference(byte[] source, int start, int length) {
+            int end = referenceOffsets[size];
+            references = ensurePoolCapacity(references, end + length);
+            System.arraycopy(source, start, references, end, length);
+            referenceOffsets[size + 1] = end + length;
+        }
+
+        private void appendDescription(byte[] source, int start, int length) {
+            int end = descriptionOffsets[size];
+            descriptions = ensurePoolCapacity(descriptions, end + length);
+            System.arraycopy(source, start, descriptions, end, length);
+            descriptionOffsets[size + 1] = end + length;
+        }
+
+        private static byte[] ensurePoolCapacity(byte[] pool, int required) {
+            if (required <= pool.length) {
+                return pool;
+            }
+            return Arrays.copyOf(pool, (int) Math.min(Math.max(required, (long) pool.length * 2), Integer.MAX_VALUE - 8));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.acme.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Fast paths for the common shapes of the upload's typed columns. Each parser returns {@code null} when
+ * the input is not in its fast-path shape; callers then fall back to the general JDK parser, which also
+ * produces the error. A fast-path result is always identical to what the JDK parser would return.
+ */
+final class CsvFieldParsers {
+
+    private static final int TIMESTAMP_LENGTH = "2024-01-15T10:30:00Z".length();
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final String[] CURRENCY_CODES = new String[26 * 26 * 26];
+
+    private CsvFieldParsers() {
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm:ssZ}, the layout bank statements use, without intermediate objects.
+     */
+    static Instant parseTimestamp(char[] chars, int start, int end) {
+        if (end - start != TIMESTAMP_LENGTH
+                || chars[start + 4] != '-' || chars[start + 7] != '-' || chars[start + 10] != 'T'
+                || chars[start + 13] != ':' || chars[start + 16] != ':' || chars[start + 19] != 'Z') {
+            return null;
+        }
+        int year = digits(chars, start, 4);
+        int month = digits(chars, start + 5, 2);
+        int day = digits(chars, start + 8, 2);
+        int hour = digits(chars, start + 11, 2);
+        int minute = digits(chars, start + 14, 2);
+        int second = digits(chars, start + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        return Instant.ofEpochSecond(epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second);
+    }
+
+    /**
+     * Parses plain decimals ({@code -1337}, {@code 100.50}) of up to 18 digits straight into a
+     * {@link BigDecimal} with the same unscaled value and scale {@code new BigDecimal(String)} would give.
+     */
+    static BigDecimal parseAmount(char[] chars, int start, int end) {
+        int index = start;
+        boolean negative = false;
+        if (index < end && (chars[index] == '-' || chars[index] == '+')) {
+            negative = chars[index] == '-';
+            index++;
+        }
+
+        long unscaled = 0;
+        int digitCount = 0;
+        int integerDigits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; index < end; index++) {
+            char c = chars[index];
+            if (c >= '0' && c <= '9') {
+                if (++digitCount > MAX_FAST_DIGITS) {
+                    return null;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (fraction) {
+                    scale++;
+                } else {
+                    integerDigits++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return null;
+            }
+        }
+        if (integerDigits == 0 || (fraction && scale == 0)) {
+            return null;
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    /**
+     * Upper-cases three ASCII letters to a shared, cached code string.
+     */
+    static String currencyCode(char[] chars, int start, int end) {
+        if (end - start != 3) {
+            return null;
+        }
+        int index = 0;
+        for (int i = start; i < end; i++) {
+            int letter = asciiLetterIndex(chars[i]);
+            if (letter < 0) {
+                return null;
+            }
+            index = index * 26 + letter;
+        }
+        String code = CURRENCY_CODES[index];
+        if (code == null) {
+            code = new String(chars, start, 3).toUpperCase();
+            CURRENCY_CODES[index] = code;
+        }
+        return code;
+    }
+
+    private static int asciiLetterIndex(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+
+    private static int digits(char[] chars, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Same arithmetic as {@code LocalDate.toEpochDay()} for non-negative years.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
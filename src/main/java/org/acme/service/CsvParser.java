@@ -1,8 +1,5 @@
 package org.acme.service;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.acme.data.BankTransaction;
 import org.acme.exception.TransactionValidationException;
 
@@ -14,51 +11,83 @@ import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public final class CsvParser {
 
     private static final String[] EXPECTED_HEADERS = {"reference", "timestamp", "amount", "currency", "description"};
+    private static final int REFERENCE = 0;
+    private static final int TIMESTAMP = 1;
+    private static final int AMOUNT = 2;
+    private static final int CURRENCY = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int NO_ERROR_LIMIT = Integer.MAX_VALUE;
 
     private CsvParser() {
     }
 
     public static List<BankTransaction> parse(InputStream csvStream) {
-        List<BankTransaction> transactions = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-
-        try (Reader reader = new InputStreamReader(csvStream, StandardCharsets.UTF_8);
-             CSVParser parser = new CSVParser(reader, 
-                CSVFormat.DEFAULT.builder()
-                    .setHeader()
-                    .setSkipHeaderRecord(true)
-                    .setTrim(true)
-                    .build())) {
-
-            validateHeaders(parser);
-
-            for (CSVRecord csvRecord : parser) {
-                processRecord(csvRecord, transactions, errors);
+        try (RecordReader reader = open(csvStream)) {
+            List<BankTransaction> transactions = reader.nextChunk(Integer.MAX_VALUE);
+            if (transactions.isEmpty()) {
+                throw TransactionValidationException.withMessage("No valid transaction rows found in CSV");
             }
+            return transactions;
+        }
+    }
+
+    public static RecordReader open(InputStream csvStream) {
+        return open(csvStream, null);
+    }
 
-            validateResults(transactions, errors);
+    public static RecordReader open(InputStream csvStream, Parallelism parallelism) {
+        return open(csvStream, parallelism, NO_ERROR_LIMIT);
+    }
 
+    /**
+     * Opens a reader that validates chunks of at least {@link Parallelism#minRecords()} records on
+     * {@code parallelism}'s executor; a {@code null} parallelism always validates on the calling thread.
+     * Validation of a chunk that fails stops at its first invalid line past {@code maxErrors}.
+     */
+    public static RecordReader open(InputStream csvStream, Parallelism parallelism, int maxErrors) {
+        Reader reader = new InputStreamReader(csvStream, StandardCharsets.UTF_8);
+        try {
+            CsvTokenizer tokenizer = new CsvTokenizer(reader);
+            int[] columns = validateHeaders(tokenizer);
+            return new RecordReader(reader, tokenizer, columns, parallelism, maxErrors);
         } catch (IOException ex) {
-            throw TransactionValidationException.withMessage("Unable to read CSV payload: " + ex.getMessage());
+            closeQuietly(reader);
+            throw unreadable(ex);
+        } catch (RuntimeException ex) {
+            closeQuietly(reader);
+            throw ex;
         }
-
-        return transactions;
     }
 
-    private static void validateHeaders(CSVParser parser) {
-        if (parser.getHeaderMap().isEmpty()) {
+    private static int[] validateHeaders(CsvTokenizer tokenizer) throws IOException {
+        if (!tokenizer.nextRecord()) {
             throw TransactionValidationException.withMessage("CSV payload is empty");
         }
 
+        Map<String, Integer> headerMap = new HashMap<>();
+        for (int i = 0; i < tokenizer.fieldCount(); i++) {
+            headerMap.put(tokenizer.string(i), i);
+        }
+
+        int[] columns = new int[EXPECTED_HEADERS.length];
         List<String> missingHeaders = new ArrayList<>();
-        for (String header : EXPECTED_HEADERS) {
-            if (!parser.getHeaderMap().containsKey(header)) {
-                missingHeaders.add(header);
+        for (int i = 0; i < EXPECTED_HEADERS.length; i++) {
+            Integer column = headerMap.get(EXPECTED_HEADERS[i]);
+            if (column == null) {
+                missingHeaders.add(EXPECTED_HEADERS[i]);
+            } else {
+                columns[i] = column;
             }
         }
 
@@ -67,98 +96,419 @@ public final class CsvParser {
                 "Missing required CSV headers: " + String.join(", ", missingHeaders)
             );
         }
+        return columns;
     }
 
-    private static void processRecord(CSVRecord csvRecord, List<BankTransaction> transactions, List<String> errors) {
-        int lineNumber = (int) csvRecord.getRecordNumber() + 1;
-        List<String> recordErrors = new ArrayList<>();
-
-        String reference = validateReference(lineNumber, csvRecord.get("reference"), recordErrors);
-        Instant timestamp = validateTimestamp(lineNumber, csvRecord.get("timestamp"), recordErrors);
-        BigDecimal amount = validateAmount(lineNumber, csvRecord.get("amount"), recordErrors);
-        String currency = validateCurrency(lineNumber, csvRecord.get("currency"), recordErrors);
-        String description = csvRecord.get("description");
-
-        if (recordErrors.isEmpty()) {
-            transactions.add(buildTransaction(reference, timestamp, amount, currency, description));
-        } else {
-            errors.addAll(recordErrors);
+    private static String validateReference(CsvTokenizer record, int column, List<String> problems) {
+        if (record.isEmpty(column)) {
+            problems.add("Missing reference");
+            return null;
         }
+        return record.string(column);
     }
 
-    private static String validateReference(int lineNumber, String value, List<String> errors) {
-        if (value == null || value.isEmpty()) {
-            errors.add(formatErrorMessage(lineNumber, "Missing reference"));
+    private static Instant validateTimestamp(CsvTokenizer record, int column, List<String> problems) {
+        if (record.isEmpty(column)) {
+            problems.add("Missing timestamp");
             return null;
         }
-        return value;
-    }
 
-    private static Instant validateTimestamp(int lineNumber, String value, List<String> errors) {
-        if (value == null || value.isEmpty()) {
-            errors.add(formatErrorMessage(lineNumber, "Missing timestamp"));
-            return null;
+        Instant timestamp = CsvFieldParsers.parseTimestamp(record.chars(), record.start(column), record.end(column));
+        if (timestamp != null) {
+            return timestamp;
         }
 
+        String value = record.string(column);
         try {
             return Instant.parse(value);
         } catch (Exception ex) {
-            errors.add(formatErrorMessage(lineNumber, "Invalid timestamp '%s'".formatted(value)));
+            problems.add("Invalid timestamp '%s'".formatted(value));
             return null;
         }
     }
 
-    private static BigDecimal validateAmount(int lineNumber, String value, List<String> errors) {
-        if (value == null || value.isEmpty()) {
-            errors.add(formatErrorMessage(lineNumber, "Missing amount"));
+    private static BigDecimal validateAmount(CsvTokenizer record, int column, List<String> problems) {
+        if (record.isEmpty(column)) {
+            problems.add("Missing amount");
             return null;
         }
 
+        BigDecimal amount = CsvFieldParsers.parseAmount(record.chars(), record.start(column), record.end(column));
+        if (amount != null) {
+            return amount;
+        }
+
+        String value = record.string(column);
         try {
             return new BigDecimal(value);
         } catch (NumberFormatException ex) {
-            errors.add(formatErrorMessage(lineNumber, "Invalid amount '%s'".formatted(value)));
+            problems.add("Invalid amount '%s'".formatted(value));
             return null;
         }
     }
 
-    private static String validateCurrency(int lineNumber, String value, List<String> errors) {
-        if (value == null || value.isEmpty()) {
-            errors.add(formatErrorMessage(lineNumber, "Missing currency"));
+    private static String validateCurrency(CsvTokenizer record, int column, List<String> problems) {
+        if (record.isEmpty(column)) {
+            problems.add("Missing currency");
             return null;
         }
 
-        String upperCurrency = value.toUpperCase();
+        String currency = CsvFieldParsers.currencyCode(record.chars(), record.start(column), record.end(column));
+        if (currency != null) {
+            return currency;
+        }
+
+        String upperCurrency = record.string(column).toUpperCase();
         if (upperCurrency.length() != 3) {
-            errors.add(formatErrorMessage(lineNumber, "Currency must be a 3-letter ISO code"));
+            problems.add("Currency must be a 3-letter ISO code");
             return null;
         }
 
         return upperCurrency;
     }
 
-    private static BankTransaction buildTransaction(String reference, Instant timestamp, 
+    private static BankTransaction buildTransaction(String reference, Instant timestamp,
                                                     BigDecimal amount, String currency, String description) {
         BankTransaction transaction = new BankTransaction();
         transaction.setReference(reference);
         transaction.setTimestamp(timestamp);
         transaction.setAmount(amount);
         transaction.setCurrency(currency);
-        transaction.setDescription(description == null || description.isEmpty() ? null : description);
+        transaction.setDescription(description);
         return transaction;
     }
 
-    private static void validateResults(List<BankTransaction> transactions, List<String> errors) {
-        if (!errors.isEmpty()) {
-            throw new TransactionValidationException(errors);
+    /**
+     * Closing entry of an error list that was cut off after {@code maxErrors} invalid lines.
+     */
+    public static String stoppedAfter(int maxErrors) {
+        return "Validation stopped after %d invalid lines".formatted(maxErrors);
+    }
+
+    private static String formatErrorMessage(long lineNumber, String message) {
+        return "Line %d: %s".formatted(lineNumber, message);
+    }
+
+    private static TransactionValidationException unreadable(IOException ex) {
+        return TransactionValidationException.withMessage("Unable to read CSV payload: " + ex.getMessage());
+    }
+
+    private static void closeQuietly(Reader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // the original failure is more relevant than a failed close
+        }
+    }
+
+    private static void processRecord(CsvTokenizer record, int[] columns, long lineNumber, BlockResult result) {
+        List<String> problems = result.problems;
+        problems.clear();
+
+        String reference = validateReference(record, columns[REFERENCE], problems);
+        Instant timestamp = validateTimestamp(record, columns[TIMESTAMP], problems);
+        BigDecimal amount = validateAmount(record, columns[AMOUNT], problems);
+        String currency = validateCurrency(record, columns[CURRENCY], problems);
+
+        if (problems.isEmpty()) {
+            String description = record.isEmpty(columns[DESCRIPTION]) ? null : record.string(columns[DESCRIPTION]);
+            result.accept(buildTransaction(reference, timestamp, amount, currency, description), lineNumber);
+        } else {
+            result.reject(lineNumber, record, columns);
         }
+    }
 
-        if (transactions.isEmpty()) {
-            throw TransactionValidationException.withMessage("No valid transaction rows found in CSV");
+    private static BlockResult validateBlock(CsvTokenizer.RawBlock block, int[] columns, int stopAt,
+                                             boolean keepFields) {
+        CsvTokenizer record = new CsvTokenizer(block);
+        BlockResult result = new BlockResult(block.records(), keepFields);
+        long recordNumber = block.firstRecordNumber();
+        try {
+            while (result.rejectedCount() < stopAt && record.nextRecord()) {
+                processRecord(record, columns, ++recordNumber + 1, result);
+            }
+        } catch (IOException ex) {
+            throw unreadable(ex);
         }
+        return result;
     }
 
-    private static String formatErrorMessage(int lineNumber, String message) {
-        return "Line %d: %s".formatted(lineNumber, message);
+    /**
+     * Settings for validating large chunks on several threads.
+     *
+     * @param executor    runs the validation of each block of records
+     * @param threads     number of blocks a chunk is split into
+     * @param minRecords  chunks with fewer records are validated on the calling thread
+     */
+    public record Parallelism(Executor executor, int threads, int minRecords) {
+    }
+
+    /**
+     * A line that failed validation and why, with its fields in
+     * {@code reference,timestamp,amount,currency,description} order when they were kept.
+     */
+    public record RejectedLine(long line, List<String> reasons, List<String> fields) {
+
+        public String reason() {
+            return String.join("; ", reasons);
+        }
+
+        List<String> errors() {
+            return reasons.stream().map(reason -> formatErrorMessage(line, reason)).toList();
+        }
+    }
+
+    /**
+     * Valid rows of a chunk with their line numbers, and the lines that were rejected.
+     */
+    public record Chunk(List<BankTransaction> transactions, long[] lines, List<RejectedLine> rejected) {
+
+        public boolean isEmpty() {
+            return transactions.isEmpty() && rejected.isEmpty();
+        }
+    }
+
+    /**
+     * Rows and rejected lines of a block or a whole chunk.
+     */
+    private static final class BlockResult {
+
+        private final List<BankTransaction> transactions;
+        private final boolean keepFields;
+        private final List<String> problems = new ArrayList<>(4);
+        private final List<RejectedLine> rejected = new ArrayList<>();
+        private long[] lines;
+
+        private BlockResult(int records, boolean keepFields) {
+            int capacity = Math.min(records, 1024);
+            this.transactions = new ArrayList<>(capacity);
+            this.keepFields = keepFields;
+            this.lines = new long[capacity];
+        }
+
+        private void accept(BankTransaction transaction, long lineNumber) {
+            if (transactions.size() == lines.length) {
+                lines = Arrays.copyOf(lines, Math.max(16, lines.length * 2));
+            }
+            lines[transactions.size()] = lineNumber;
+            transactions.add(transaction);
+        }
+
+        private void reject(long lineNumber, CsvTokenizer record, int[] columns) {
+            List<String> fields = List.of();
+            if (keepFields) {
+                String[] values = new String[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = record.string(columns[i]);
+                }
+                fields = List.of(values);
+            }
+            rejected.add(new RejectedLine(lineNumber, List.copyOf(problems), fields));
+        }
+
+        private int rejectedCount() {
+            return rejected.size();
+        }
+
+        /**
+         * Appends {@code other}, keeping at most {@code rejectLimit} of its rejected lines.
+         */
+        private void addAll(BlockResult other, int rejectLimit) {
+            for (int i = 0; i < other.transactions.size(); i++) {
+                accept(other.transactions.get(i), other.lines[i]);
+            }
+            rejected.addAll(other.rejected.subList(0, Math.min(rejectLimit, other.rejected.size())));
+        }
+
+        /**
+         * Errors of the first {@code maxLines} rejected lines.
+         */
+        private List<String> errors(int maxLines) {
+            List<String> errors = new ArrayList<>();
+            for (RejectedLine line : rejected.subList(0, Math.min(maxLines, rejected.size()))) {
+                errors.addAll(line.errors());
+            }
+            return errors;
+        }
+
+        private Chunk toChunk() {
+            return new Chunk(transactions, Arrays.copyOf(lines, transactions.size()), List.copyOf(rejected));
+        }
+    }
+
+    public static final class RecordReader implements AutoCloseable {
+
+        private static final int MIN_BLOCK_RECORDS = 256;
+        private static final int MAX_BLOCK_RECORDS = 16_384;
+
+        private final Reader reader;
+        private final CsvTokenizer tokenizer;
+        private final int[] columns;
+        private final Parallelism parallelism;
+        private final int maxErrors;
+        private long recordNumber;
+
+        private RecordReader(Reader reader, CsvTokenizer tokenizer, int[] columns, Parallelism parallelism,
+                             int maxErrors) {
+            this.reader = reader;
+            this.tokenizer = tokenizer;
+            this.columns = columns;
+            this.parallelism = parallelism;
+            this.maxErrors = maxErrors;
+        }
+
+        /**
+         * Reads up to {@code maxRecords} records and fails on the first chunk with invalid lines.
+         */
+        public List<BankTransaction> nextChunk(int maxRecords) {
+            return nextChunk(maxRecords, false).transactions();
+        }
+
+        /**
+         * Reads up to {@code maxRecords} records. Invalid lines fail the import: the rest of the input is
+         * validated in chunks of the same size, without keeping its rows, and at most {@code maxErrors}
+         * invalid lines of the whole input are reported, so validation stops at the next one. With
+         * {@code keepRejected} every record is validated and invalid lines are returned alongside the valid
+         * rows.
+         */
+        public Chunk nextChunk(int maxRecords, boolean keepRejected) {
+            // Validating one line past the limit tells a chunk with exactly maxErrors invalid lines apart.
+            int stopAt = keepRejected || maxErrors == NO_ERROR_LIMIT ? NO_ERROR_LIMIT : maxErrors + 1;
+            BlockResult result = read(maxRecords, keepRejected, stopAt);
+            if (!keepRejected && result.rejectedCount() > 0) {
+                rejectRest(result, maxRecords, stopAt);
+                List<String> errors = result.errors(maxErrors);
+                if (result.rejectedCount() > maxErrors) {
+                    errors.add(stoppedAfter(maxErrors));
+                }
+                throw new TransactionValidationException(errors);
+            }
+            return result.toChunk();
+        }
+
+        /**
+         * Adds the invalid lines of the records after a failed chunk to it, until {@code stopAt} lines are
+         * collected or the input ends.
+         */
+        private void rejectRest(BlockResult failed, int maxRecords, int stopAt) {
+            while (failed.rejectedCount() < stopAt) {
+                long before = recordNumber;
+                BlockResult rest = read(maxRecords, false, stopAt - failed.rejectedCount());
+                if (recordNumber == before) {
+                    return;
+                }
+                failed.rejected.addAll(rest.rejected);
+            }
+        }
+
+        private BlockResult read(int maxRecords, boolean keepFields, int stopAt) {
+            if (parallelism == null || maxRecords < parallelism.minRecords()) {
+                return readSequentially(maxRecords, keepFields, stopAt);
+            }
+            return readInParallel(maxRecords, keepFields, stopAt);
+        }
+
+        private BlockResult readSequentially(int maxRecords, boolean keepFields, int stopAt) {
+            BlockResult result = new BlockResult(maxRecords, keepFields);
+            try {
+                for (int processed = 0; processed < maxRecords && result.rejectedCount() < stopAt
+                        && tokenizer.nextRecord(); processed++) {
+                    processRecord(tokenizer, columns, ++recordNumber + 1, result);
+                }
+            } catch (IOException ex) {
+                throw unreadable(ex);
+            }
+            return result;
+        }
+
+        /**
+         * Splits the chunk into blocks of raw records on this thread and tokenizes and validates the
+         * blocks concurrently. Results are merged in block order, so rows and errors keep their line order.
+         * If the input ends before {@link Parallelism#minRecords()} records were read, the few blocks are
+         * validated here instead.
+         */
+        private BlockResult readInParallel(int maxRecords, boolean keepFields, int stopAt) {
+            int blockRecords = Math.clamp(Math.ceilDiv(maxRecords, parallelism.threads()),
+                MIN_BLOCK_RECORDS, MAX_BLOCK_RECORDS);
+            List<CsvTokenizer.RawBlock> pending = new ArrayList<>();
+            List<CompletableFuture<BlockResult>> results = new ArrayList<>();
+            int remaining = maxRecords;
+            int read = 0;
+
+            try {
+                while (remaining > 0) {
+                    CsvTokenizer.RawBlock block = new CsvTokenizer.RawBlock(recordNumber);
+                    int limit = Math.min(blockRecords, remaining);
+                    while (block.records() < limit && tokenizer.copyRecord(block)) {
+                        // keep copying records until the block is full
+                    }
+                    if (block.records() == 0) {
+                        break;
+                    }
+                    recordNumber += block.records();
+                    remaining -= block.records();
+                    read += block.records();
+                    pending.add(block);
+
+                    if (read >= parallelism.minRecords()) {
+                        for (CsvTokenizer.RawBlock ready : pending) {
+                            results.add(CompletableFuture.supplyAsync(
+                                () -> validateBlock(ready, columns, stopAt, keepFields), parallelism.executor()));
+                        }
+                        pending.clear();
+                    }
+                    if (block.records() < limit) {
+                        break;
+                    }
+                }
+            } catch (IOException ex) {
+                throw unreadable(ex);
+            }
+
+            for (CsvTokenizer.RawBlock block : pending) {
+                results.add(CompletableFuture.completedFuture(validateBlock(block, columns, stopAt, keepFields)));
+            }
+            return merge(results, read, keepFields, stopAt);
+        }
+
+        /**
+         * Joins the blocks in order. Blocks after the one that reached {@code stopAt} invalid lines are
+         * discarded, so the reported lines are the first invalid ones of the chunk.
+         */
+        private BlockResult merge(List<CompletableFuture<BlockResult>> results, int records, boolean keepFields,
+                                  int stopAt) {
+            BlockResult merged = new BlockResult(records, keepFields);
+            for (CompletableFuture<BlockResult> result : results) {
+                BlockResult block;
+                try {
+                    block = result.join();
+                } catch (CompletionException ex) {
+                    if (ex.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    throw ex;
+                }
+                if (merged.rejectedCount() < stopAt) {
+                    merged.addAll(block, stopAt - merged.rejectedCount());
+                }
+            }
+            return merged;
+        }
+
+        /**
+         * Number of records read so far, valid or not.
+         */
+        public long recordsRead() {
+            return recordNumber;
+        }
+
+        @Override
+        public void close() {
+            try {
+                reader.close();
+            } catch (IOException ex) {
+                throw unreadable(ex);
+            }
+        }
     }
 }
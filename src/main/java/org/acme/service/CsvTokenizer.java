@@ -0,0 +1,253 @@
+package org.acme.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Minimal RFC 4180 tokenizer with the same dialect the upload format always used: comma delimiter,
+ * double-quote encapsulation with {@code ""} escapes, CR, LF or CRLF record separators, blank lines
+ * skipped and surrounding whitespace trimmed from every value.
+ * <p>
+ * Field contents of the current record are unescaped into one reusable char buffer and exposed as
+ * offsets into it, so reading a record allocates nothing unless a caller asks for a {@link String}.
+ * {@link #copyRecord(RawBlock)} instead copies the raw text of a record, which lets one thread split
+ * the input at record boundaries while others tokenize the pieces.
+ */
+final class CsvTokenizer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+
+    private char[] values = new char[256];
+    private int length;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int fieldCount;
+
+    CsvTokenizer(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    CsvTokenizer(RawBlock block) {
+        this.reader = null;
+        this.buffer = block.chars;
+        this.limit = block.length;
+    }
+
+    boolean nextRecord() throws IOException {
+        int c;
+        while ((c = peek()) == '\n' || c == '\r') {
+            position++;
+        }
+        if (c == -1) {
+            return false;
+        }
+
+        length = 0;
+        fieldCount = 0;
+        while (!readField()) {
+            // keep reading fields until the record separator
+        }
+        return true;
+    }
+
+    /**
+     * Appends the raw text of the next record to {@code block}, terminated by a line feed. Line breaks
+     * inside quoted fields stay part of the record; blank lines are skipped as in {@link #nextRecord()}.
+     */
+    boolean copyRecord(RawBlock block) throws IOException {
+        int c;
+        while ((c = peek()) == '\n' || c == '\r') {
+            position++;
+        }
+        if (c == -1) {
+            return false;
+        }
+
+        boolean fieldStart = true;
+        boolean quoted = false;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                block.append((char) c);
+                if (c == '"') {
+                    if (peek() == '"') {
+                        block.append((char) read());
+                    } else {
+                        quoted = false;
+                    }
+                }
+                continue;
+            }
+            if (c == '\n' || c == '\r') {
+                skipLineFeedAfter(c);
+                break;
+            }
+            block.append((char) c);
+            quoted = c == '"' && fieldStart;
+            fieldStart = c == ',';
+        }
+        block.append('\n');
+        block.records++;
+        return true;
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    char[] chars() {
+        return values;
+    }
+
+    int start(int field) {
+        return field < fieldCount ? starts[field] : 0;
+    }
+
+    int end(int field) {
+        return field < fieldCount ? ends[field] : 0;
+    }
+
+    boolean isEmpty(int field) {
+        return start(field) == end(field);
+    }
+
+    String string(int field) {
+        return field < fieldCount ? new String(values, starts[field], ends[field] - starts[field]) : "";
+    }
+
+    /**
+     * Reads one field and reports whether it was the last one of the record.
+     */
+    private boolean readField() throws IOException {
+        int start = length;
+        int c = read();
+        if (c == '"') {
+            while (true) {
+                c = read();
+                if (c == -1) {
+                    throw new IOException("EOF reached before encapsulated token finished");
+                }
+                if (c == '"') {
+                    if (peek() != '"') {
+                        break;
+                    }
+                    position++;
+                }
+                append((char) c);
+            }
+            while (true) {
+                c = read();
+                if (c == ',') {
+                    addField(start);
+                    return false;
+                }
+                if (c == -1 || c == '\n' || c == '\r') {
+                    skipLineFeedAfter(c);
+                    addField(start);
+                    return true;
+                }
+                if (!Character.isWhitespace(c)) {
+                    throw new IOException("Invalid character between encapsulated token and delimiter");
+                }
+            }
+        }
+
+        while (c != -1 && c != ',' && c != '\n' && c != '\r') {
+            append((char) c);
+            c = read();
+        }
+        skipLineFeedAfter(c);
+        addField(start);
+        return c != ',';
+    }
+
+    private void skipLineFeedAfter(int c) throws IOException {
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+    }
+
+    private void addField(int start) {
+        int end = length;
+        while (start < end && values[start] <= ' ') {
+            start++;
+        }
+        while (end > start && values[end - 1] <= ' ') {
+            end--;
+        }
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private void append(char c) {
+        if (length == values.length) {
+            values = Arrays.copyOf(values, length * 2);
+        }
+        values[length++] = c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        if (reader == null) {
+            return false;
+        }
+        int read = reader.read(buffer, 0, buffer.length);
+        while (read == 0) {
+            read = reader.read(buffer, 0, buffer.length);
+        }
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    static final class RawBlock {
+
+        private final long firstRecordNumber;
+        private char[] chars = new char[8192];
+        private int length;
+        private int records;
+
+        RawBlock(long firstRecordNumber) {
+            this.firstRecordNumber = firstRecordNumber;
+        }
+
+        long firstRecordNumber() {
+            return firstRecordNumber;
+        }
+
+        int records() {
+            return records;
+        }
+
+        private void append(char c) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, length * 2);
+            }
+            chars[length++] = c;
+        }
+    }
+}
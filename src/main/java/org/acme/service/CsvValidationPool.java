@@ -0,0 +1,41 @@
+package org.acme.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.acme.config.TransactionsConfig;
+
+import java.util.concurrent.ForkJoinPool;
+
+@ApplicationScoped
+public class CsvValidationPool {
+
+    private final CsvParser.Parallelism parallelism;
+    private final ForkJoinPool pool;
+
+    public CsvValidationPool(TransactionsConfig config) {
+        TransactionsConfig.Import.Parallel parallel = config.importing().parallel();
+        if (parallel.enabled()) {
+            int threads = parallel.threads().orElse(Runtime.getRuntime().availableProcessors());
+            this.pool = new ForkJoinPool(threads);
+            this.parallelism = new CsvParser.Parallelism(pool, threads, parallel.minRecords());
+        } else {
+            this.pool = null;
+            this.parallelism = null;
+        }
+    }
+
+    /**
+     * Returns the settings for {@link CsvParser#open(java.io.InputStream, CsvParser.Parallelism)}, or
+     * {@code null} when parallel validation is disabled.
+     */
+    public CsvParser.Parallelism parallelism() {
+        return parallelism;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
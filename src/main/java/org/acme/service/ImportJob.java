@@ -0,0 +1,70 @@
+package org.acme.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mutable state of one asynchronous import, updated by the worker and read by status requests.
+ */
+final class ImportJob {
+
+    private final String id;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private volatile ImportJobStatus.Phase phase = ImportJobStatus.Phase.QUEUED;
+    private volatile List<String> errors = List.of();
+    private volatile long rowsRejected;
+    private volatile String rejectsLocation;
+    private volatile Instant finishedAt;
+
+    ImportJob(String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return id;
+    }
+
+    void start() {
+        phase = ImportJobStatus.Phase.RUNNING;
+    }
+
+    void rowsImported(int count) {
+        rowsProcessed.addAndGet(count);
+    }
+
+    void succeed() {
+        finish(ImportJobStatus.Phase.SUCCEEDED, List.of());
+    }
+
+    /**
+     * Finishes a partial import that rejected lines, reporting the first ones.
+     */
+    void succeed(ImportReport report) {
+        this.rowsRejected = report.rowsRejected();
+        this.rejectsLocation = report.rejectsLocation();
+        finish(ImportJobStatus.Phase.SUCCEEDED, report.errors());
+    }
+
+    void fail(List<String> errors) {
+        finish(ImportJobStatus.Phase.FAILED, errors);
+    }
+
+    boolean finishedBefore(Instant instant) {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(instant);
+    }
+
+    ImportJobStatus status() {
+        Instant finished = finishedAt;
+        return new ImportJobStatus(id, phase, rowsProcessed.get(), rowsRejected, errors, rejectsLocation,
+            submittedAt, finished);
+    }
+
+    private void finish(ImportJobStatus.Phase phase, List<String> errors) {
+        this.errors = List.copyOf(errors);
+        this.finishedAt = Instant.now();
+        this.phase = phase;
+    }
+}
@@ -0,0 +1,152 @@
+package org.acme.service;
+
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.acme.config.TransactionsConfig;
+import org.acme.exception.ImportRejectedException;
+import org.acme.exception.TransactionValidationException;
+import org.acme.persistence.DatabaseLimiter;
+import org.acme.persistence.ProcessedUploadRepository.ProcessedUpload;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs CSV imports in the background. Uploads are spooled to disk first, still compressed if they were
+ * sent that way, so the request can finish right away; a fixed pool runs the jobs and a semaphore over
+ * running plus queued jobs rejects new uploads once the queue is full, before their body is read. Uploads
+ * imported before, by idempotency key or fingerprint, are answered from the earlier import instead of
+ * being queued; the body is only hashed while spooling when one of the two is in use. A running job
+ * holds a {@link DatabaseLimiter} permit like a synchronous upload, waiting for one without a timeout,
+ * so jobs and requests together never need more connections than the pool has.
+ */
+@ApplicationScoped
+public class ImportJobService {
+
+    /**
+     * A queued job, or the earlier import of the same upload when nothing was queued.
+     */
+    public record Submission(ImportJobStatus job, ProcessedUpload previousImport) {
+    }
+
+    private final TransactionService transactionService;
+    private final DatabaseLimiter databaseLimiter;
+    private final UploadDecoder uploadDecoder;
+    private final UploadSpool uploadSpool;
+    private final ImportRejectsStore rejectsStore;
+    private final TransactionsConfig.Import.Async asyncConfig;
+    private final boolean fingerprintEnabled;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final Semaphore slots;
+    private final ExecutorService executor;
+
+    public ImportJobService(TransactionService transactionService, DatabaseLimiter databaseLimiter,
+                            UploadDecoder uploadDecoder, UploadSpool uploadSpool, ImportRejectsStore rejectsStore,
+                            TransactionsConfig config) {
+        this.transactionService = transactionService;
+        this.databaseLimiter = databaseLimiter;
+        this.uploadDecoder = uploadDecoder;
+        this.uploadSpool = uploadSpool;
+        this.rejectsStore = rejectsStore;
+        this.asyncConfig = config.importing().async();
+        this.fingerprintEnabled = config.importing().fingerprint().enabled();
+        this.slots = new Semaphore(asyncConfig.maxConcurrent() + asyncConfig.queueCapacity());
+        this.executor = Executors.newFixedThreadPool(asyncConfig.maxConcurrent(),
+            Thread.ofPlatform().name("csv-import-", 0).factory());
+    }
+
+    public ImportJobStatus submit(InputStream csvStream) {
+        return submit(csvStream, UploadDecoder.Encoding.IDENTITY, ImportMode.STRICT, null).job();
+    }
+
+    /**
+     * Queues the upload, which is decompressed according to {@code encoding} only when the job runs.
+     */
+    public Submission submit(InputStream csvStream, UploadDecoder.Encoding encoding, ImportMode mode,
+                             String idempotencyKey) {
+        evictExpiredJobs();
+        if (!slots.tryAcquire()) {
+            throw new ImportRejectedException("Too many imports in progress, try again later");
+        }
+
+        UploadSpool.SpooledUpload spooled;
+        try {
+            spooled = uploadSpool.spool(csvStream, fingerprintEnabled || idempotencyKey != null);
+        } catch (RuntimeException ex) {
+            slots.release();
+            throw ex;
+        }
+        UploadFingerprint fingerprint = spooled.fingerprint() == null
+            ? null
+            : new UploadFingerprint(spooled.fingerprint(), idempotencyKey, fingerprintEnabled);
+        if (fingerprint != null) {
+            Optional<ProcessedUpload> previousImport;
+            try {
+                previousImport = databaseLimiter.call(() -> transactionService.findProcessedUpload(fingerprint));
+            } catch (RuntimeException ex) {
+                uploadSpool.delete(spooled.file());
+                slots.release();
+                throw ex;
+            }
+            if (previousImport.isPresent()) {
+                uploadSpool.delete(spooled.file());
+                slots.release();
+                return new Submission(null, previousImport.get());
+            }
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.id(), job);
+        executor.execute(() -> run(job, spooled.file(), encoding, mode, fingerprint));
+        return new Submission(job.status(), null);
+    }
+
+    public Optional<ImportJobStatus> find(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(ImportJob::status);
+    }
+
+    private void run(ImportJob job, Path spool, UploadDecoder.Encoding encoding, ImportMode mode,
+                     UploadFingerprint fingerprint) {
+        try (InputStream spooled = Files.newInputStream(spool);
+             InputStream csvStream = uploadDecoder.decode(spooled, encoding)) {
+            ImportResult result = databaseLimiter.callWhenAvailable(() -> {
+                job.start();
+                return transactionService.importCsv(csvStream, mode, fingerprint, job::rowsImported);
+            });
+            if (result.rejects() == null) {
+                job.succeed();
+            } else {
+                job.succeed(ImportReport.of(result, rejectsStore.publish(job.id(), result.rejects())));
+            }
+        } catch (TransactionValidationException ex) {
+            job.fail(ex.getErrors());
+        } catch (Exception ex) {
+            Log.errorf(ex, "Import job %s failed", job.id());
+            job.fail(List.of("Unexpected server error"));
+        } finally {
+            uploadSpool.delete(spool);
+            slots.release();
+        }
+    }
+
+    private void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minus(asyncConfig.retention());
+        jobs.values().removeIf(job -> job.finishedBefore(cutoff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
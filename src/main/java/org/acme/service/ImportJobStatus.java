@@ -0,0 +1,15 @@
+package org.acme.service;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ImportJobStatus(String id, Phase phase, long rowsProcessed, long rowsRejected, List<String> errors,
+                              String rejectsLocation, Instant submittedAt, Instant finishedAt) {
+
+    public enum Phase {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
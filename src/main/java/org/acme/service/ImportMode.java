@@ -0,0 +1,26 @@
+package org.acme.service;
+
+import java.util.Locale;
+
+import org.acme.exception.TransactionValidationException;
+
+/**
+ * {@code STRICT} imports fail on the first invalid or duplicate line; {@code PARTIAL} imports store the
+ * valid rows and report the rejected lines.
+ */
+public enum ImportMode {
+    STRICT,
+    PARTIAL;
+
+    public static ImportMode of(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return STRICT;
+        }
+        return switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "strict" -> STRICT;
+            case "partial" -> PARTIAL;
+            default -> throw TransactionValidationException.withMessage(
+                "Invalid mode '%s', expected 'strict' or 'partial'".formatted(mode));
+        };
+    }
+}
@@ -0,0 +1,178 @@
+package org.acme.service;
+
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.acme.config.TransactionsConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the rejected lines of partial imports as CSV files next to the spooled uploads, for as long as
+ * finished import jobs are kept.
+ */
+@ApplicationScoped
+public class ImportRejectsStore {
+
+    private static final String HEADER = "line,reason,reference,timestamp,amount,currency,description";
+
+    private record StoredRejects(Path file, Instant storedAt) {
+    }
+
+    private final TransactionsConfig.Import.Async asyncConfig;
+    private final Map<String, StoredRejects> rejects = new ConcurrentHashMap<>();
+
+    public ImportRejectsStore(TransactionsConfig config) {
+        this.asyncConfig = config.importing().async();
+    }
+
+    /**
+     * Starts a file for the rejected lines of one import.
+     */
+    public RejectsFile create() {
+        try {
+            Path directory = asyncConfig.spoolDirectory().orElse(Path.of(System.getProperty("java.io.tmpdir")));
+            Files.createDirectories(directory);
+            Path file = Files.createTempFile(directory, "rejects-", ".csv");
+            try {
+                Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writer.write(HEADER);
+                writer.write('\n');
+                return new RejectsFile(file, writer);
+            } catch (IOException ex) {
+                delete(file);
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to store rejected lines", ex);
+        }
+    }
+
+    /**
+     * Makes a completed file downloadable and returns the path it can be downloaded from.
+     */
+    public String publish(String importId, RejectsFile rejects) {
+        evictExpired();
+        rejects.complete();
+        this.rejects.put(importId, new StoredRejects(rejects.file, Instant.now()));
+        return location(importId);
+    }
+
+    public Optional<Path> find(String importId) {
+        return Optional.ofNullable(rejects.get(importId)).map(StoredRejects::file);
+    }
+
+    public static String location(String importId) {
+        return "/transactions/imports/" + importId + "/rejects";
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(asyncConfig.retention());
+        rejects.values().removeIf(stored -> {
+            if (stored.storedAt().isBefore(cutoff)) {
+                delete(stored.file());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Rejected lines of one import, written as they are found; it is either published or discarded.
+     */
+    public static final class RejectsFile {
+
+        private final Path file;
+        private final Writer writer;
+        private long lines;
+        private boolean open = true;
+
+        private RejectsFile(Path file, Writer writer) {
+            this.file = file;
+            this.writer = writer;
+        }
+
+        public void write(List<CsvParser.RejectedLine> rejected) {
+            try {
+                for (CsvParser.RejectedLine line : rejected) {
+                    writer.write(Long.toString(line.line()));
+                    writeField(writer, line.reason());
+                    for (String field : line.fields()) {
+                        writeField(writer, field);
+                    }
+                    writer.write('\n');
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to store rejected lines", ex);
+            }
+            lines += rejected.size();
+        }
+
+        public long lines() {
+            return lines;
+        }
+
+        /**
+         * Flushes and closes the file, keeping it for {@link #publish}.
+         */
+        public void complete() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                delete(file);
+                throw new UncheckedIOException("Unable to store rejected lines", ex);
+            }
+        }
+
+        public void discard() {
+            if (open) {
+                open = false;
+                try {
+                    writer.close();
+                } catch (IOException ex) {
+                    Log.debugf(ex, "Unable to close rejected lines %s", file);
+                }
+            }
+            delete(file);
+        }
+    }
+
+    private static void writeField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            Log.warnf(ex, "Unable to delete rejected lines %s", file);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rejects.values().forEach(stored -> delete(stored.file()));
+        rejects.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package org.acme.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response of a partial import: counts, the first rejected lines and where all of them can be downloaded.
+ */
+public record ImportReport(long rowsImported, long rowsRejected, List<String> errors, String rejectsLocation) {
+
+    static final int REPORTED_LINES = 10;
+
+    public static ImportReport of(ImportResult result, String rejectsLocation) {
+        List<String> errors = new ArrayList<>();
+        for (CsvParser.RejectedLine line : result.firstRejected()) {
+            errors.addAll(line.errors());
+        }
+        return new ImportReport(result.rowsImported(), result.rowsRejected(), errors, rejectsLocation);
+    }
+}
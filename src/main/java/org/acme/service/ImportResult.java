@@ -0,0 +1,22 @@
+package org.acme.service;
+
+import org.acme.persistence.ProcessedUploadRepository.ProcessedUpload;
+
+import java.util.List;
+
+/**
+ * Outcome of an import: the rows stored and, for partial imports, the number of rejected lines, the first
+ * of them in line order and the completed file with all of them, to be published by the caller. When the
+ * same upload was imported before nothing is stored and {@code previousImport} describes that import.
+ */
+public record ImportResult(long rowsImported, long rowsRejected, List<CsvParser.RejectedLine> firstRejected,
+                           ImportRejectsStore.RejectsFile rejects, ProcessedUpload previousImport) {
+
+    static ImportResult replayOf(ProcessedUpload previousImport) {
+        return new ImportResult(0, 0, List.of(), null, previousImport);
+    }
+
+    public boolean replayed() {
+        return previousImport != null;
+    }
+}
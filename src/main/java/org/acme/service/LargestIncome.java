@@ -0,0 +1,43 @@
+package org.acme.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+import org.acme.data.BankTransaction;
+
+public record LargestIncome(String reference, BigDecimal amount, Instant timestamp, long id) {
+
+    /**
+     * Compares the amount and timestamp as stored: the amount rounded to the two decimals of the
+     * {@code numeric(19,2)} column and the timestamp to microseconds, so rows of a fresh chunk rank the same
+     * way as after loading them from the database.
+     */
+    public static LargestIncome of(BankTransaction transaction) {
+        return new LargestIncome(transaction.getReference(), transaction.getAmount().setScale(2, RoundingMode.HALF_UP),
+            BankTransaction.storedTimestamp(transaction.getTimestamp()), transaction.id);
+    }
+
+    /**
+     * Same precedence as the database query ({@code amount desc, timestamp desc, id desc}): larger amount
+     * first, then newer timestamp, then higher id.
+     */
+    public boolean outranks(LargestIncome other) {
+        if (other == null) {
+            return true;
+        }
+        int byAmount = amount.compareTo(other.amount);
+        if (byAmount != 0) {
+            return byAmount > 0;
+        }
+        int byTimestamp = timestamp.compareTo(other.timestamp);
+        return byTimestamp > 0 || (byTimestamp == 0 && id > other.id);
+    }
+
+    public static LargestIncome max(LargestIncome left, LargestIncome right) {
+        if (left == null) {
+            return right;
+        }
+        return right != null && right.outranks(left) ? right : left;
+    }
+}
@@ -0,0 +1,58 @@
+package org.acme.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.acme.persistence.ClusterNotifications;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.acme.data.BankTransaction;
+
+/**
+ * Keeps the largest income transaction in memory. It is loaded from the database on first use and
+ * afterwards only merged with the best row of each committed import chunk. Imports of other replicas
+ * make it load again.
+ */
+@ApplicationScoped
+public class LargestIncomeTracker {
+
+    private record State(int epoch, boolean loaded, LargestIncome value) {
+    }
+
+    private final AtomicReference<State> state = new AtomicReference<>(new State(0, false, null));
+
+    public String largestIncomeReference() {
+        State current = state.get();
+        if (!current.loaded()) {
+            current = load(current.epoch());
+        }
+        return current.value() == null ? null : current.value().reference();
+    }
+
+    public void refresh() {
+        state.updateAndGet(current -> new State(current.epoch() + 1, false, null));
+    }
+
+    void onImported(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionsImported event) {
+        if (event.largestIncome() != null) {
+            state.updateAndGet(current -> new State(current.epoch(), current.loaded(),
+                LargestIncome.max(current.value(), event.largestIncome())));
+        }
+    }
+
+    void onPeerImported(@Observes ClusterNotifications.PeerImported event) {
+        refresh();
+    }
+
+    private State load(int epoch) {
+        LargestIncome stored = BankTransaction.<BankTransaction>find("amount > 0 order by amount desc, timestamp desc, id desc")
+            .firstResultOptional()
+            .map(LargestIncome::of)
+            .orElse(null);
+        // Imports committed while the query ran were merged into the unloaded state and are kept.
+        return state.updateAndGet(current -> current.loaded() || current.epoch() != epoch
+            ? current
+            : new State(epoch, true, LargestIncome.max(current.value(), stored)));
+    }
+}
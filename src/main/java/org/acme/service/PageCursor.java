@@ -0,0 +1,33 @@
+package org.acme.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.acme.exception.TransactionValidationException;
+
+/**
+ * Position of the last row of a page in the {@code (timestamp desc, id desc)} listing order,
+ * handed to clients as an opaque URL-safe token.
+ */
+public record PageCursor(Instant timestamp, long id) {
+
+    public String encode() {
+        String raw = timestamp.getEpochSecond() + "." + timestamp.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            String[] parts = raw.split("\\.");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(raw);
+            }
+            Instant timestamp = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new PageCursor(timestamp, Long.parseLong(parts[2]));
+        } catch (RuntimeException ex) {
+            throw TransactionValidationException.withMessage("Invalid page cursor");
+        }
+    }
+}
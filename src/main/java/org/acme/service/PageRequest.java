@@ -0,0 +1,12 @@
+package org.acme.service;
+
+public record PageRequest(PageCursor after, int size, TransactionFilter filter) {
+
+    public PageRequest(PageCursor after, int size) {
+        this(after, size, TransactionFilter.NONE);
+    }
+
+    public boolean firstPage() {
+        return after == null;
+    }
+}
@@ -0,0 +1,105 @@
+package org.acme.service;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.arc.InjectableInstance;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+
+import org.acme.config.TransactionsConfig;
+import org.acme.persistence.ClusterNotifications;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+
+/**
+ * Sends read queries to the {@code read} datasource, a streaming replica of the primary, once it is
+ * activated with {@code quarkus.datasource.read.active}. Imports always write to the primary, and for
+ * {@code transactions.database.read-your-writes-window} after an import committed, here or on another
+ * replica, reads stay there too, so a client that just uploaded does not get a page the replica has not
+ * caught up with yet. Replica reads run in a read-only stateless session on a connection of the
+ * {@code read} pool, outside the JTA transaction.
+ */
+@ApplicationScoped
+public class ReadRouter {
+
+    private final EntityManager entityManager;
+    private final SessionFactory sessionFactory;
+    private final AgroalDataSource replica;
+    private final long windowNanos;
+    private volatile long primaryUntil;
+
+    public ReadRouter(EntityManager entityManager, SessionFactory sessionFactory,
+                      @DataSource("read") InjectableInstance<AgroalDataSource> readDataSource,
+                      TransactionsConfig config) {
+        this.entityManager = entityManager;
+        this.sessionFactory = sessionFactory;
+        List<AgroalDataSource> active = readDataSource.listActive();
+        this.replica = active.isEmpty() ? null : active.getFirst();
+        this.windowNanos = config.database().readYourWritesWindow().toNanos();
+        this.primaryUntil = System.nanoTime();
+        if (replica != null) {
+            Log.info("Read queries go to the read datasource");
+        }
+    }
+
+    /**
+     * Runs {@code work} on the replica, or on the primary in the current or a new transaction.
+     */
+    public <T> T read(Function<SharedSessionContract, T> work) {
+        if (!readsFromReplica()) {
+            return QuarkusTransaction.joiningExisting().call(() -> work.apply(entityManager.unwrap(Session.class)));
+        }
+        return readReplica(work);
+    }
+
+    /**
+     * Like {@link #read(Function)}, with a transaction timeout when a new primary transaction is started.
+     */
+    public <T> T read(int timeoutSeconds, Function<SharedSessionContract, T> work) {
+        if (!readsFromReplica()) {
+            return QuarkusTransaction.joiningExisting().timeout(timeoutSeconds)
+                .call(() -> work.apply(entityManager.unwrap(Session.class)));
+        }
+        return readReplica(work);
+    }
+
+    public boolean readsFromReplica() {
+        return replica != null && System.nanoTime() - primaryUntil >= 0;
+    }
+
+    void onImported(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionsImported event) {
+        primaryUntil = System.nanoTime() + windowNanos;
+    }
+
+    void onPeerImported(@Observes ClusterNotifications.PeerImported event) {
+        primaryUntil = System.nanoTime() + windowNanos;
+    }
+
+    private <T> T readReplica(Function<SharedSessionContract, T> work) {
+        try (Connection connection = replica.getConnection()) {
+            connection.setReadOnly(true);
+            // cursors with a fetch size need a transaction
+            connection.setAutoCommit(false);
+            try (StatelessSession session = sessionFactory.withStatelessOptions().connection(connection)
+                    .openStatelessSession()) {
+                return work.apply(session);
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException ex) {
+            throw new PersistenceException("Unable to read from the read datasource", ex);
+        }
+    }
+}
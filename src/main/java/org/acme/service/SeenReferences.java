@@ -0,0 +1,73 @@
+package org.acme.service;
+
+/**
+ * The references an import has read so far, kept as 64-bit hashes in an open-addressing table, which takes
+ * at most 16 bytes per reference instead of the strings themselves. {@link #mightContain} never misses a
+ * reference that was added; a hash collision can make it report one that was not, so callers confirm hits.
+ */
+final class SeenReferences {
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    private long[] slots = new long[INITIAL_CAPACITY];
+    private int size;
+
+    void add(String reference) {
+        if (size >= slots.length - (slots.length >> 2)) {
+            grow();
+        }
+        if (insert(slots, hash(reference))) {
+            size++;
+        }
+    }
+
+    boolean mightContain(String reference) {
+        long hash = hash(reference);
+        int mask = slots.length - 1;
+        for (int slot = (int) hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (slots[slot] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void grow() {
+        long[] grown = new long[slots.length << 1];
+        for (long hash : slots) {
+            if (hash != 0) {
+                insert(grown, hash);
+            }
+        }
+        slots = grown;
+    }
+
+    private static boolean insert(long[] table, long hash) {
+        int mask = table.length - 1;
+        int slot = (int) hash & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == hash) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = hash;
+        return true;
+    }
+
+    /**
+     * FNV-1a over the characters followed by the MurmurHash3 finalizer; 0 marks an empty slot.
+     */
+    private static long hash(String reference) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < reference.length(); i++) {
+            hash = (hash ^ reference.charAt(i)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,123 @@
+package org.acme.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.acme.config.TransactionsConfig;
+import org.acme.metrics.TransactionMetrics;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.query.SelectionQuery;
+
+/**
+ * Writes stored transactions as JSON, oldest first. Rows are read as plain columns through a database
+ * cursor and written with a streaming generator as they arrive, so memory use does not grow with the
+ * number of exported rows.
+ */
+@ApplicationScoped
+public class TransactionExportService {
+
+    private static final String EXPORT_SELECT =
+        "select reference, timestamp, amount, currency, description from BankTransaction";
+    private static final String EXPORT_ORDER = "order by timestamp, id";
+
+    public enum Format {
+        /**
+         * One JSON object per line.
+         */
+        NDJSON,
+        /**
+         * A single JSON array of objects.
+         */
+        JSON
+    }
+
+    private final ReadRouter readRouter;
+    private final JsonFactory jsonFactory;
+    private final TransactionMetrics metrics;
+    private final TransactionsConfig.Export exportConfig;
+
+    public TransactionExportService(ReadRouter readRouter, ObjectMapper objectMapper,
+                                    TransactionMetrics metrics, TransactionsConfig config) {
+        this.readRouter = readRouter;
+        this.jsonFactory = objectMapper.getFactory();
+        this.metrics = metrics;
+        this.exportConfig = config.export();
+    }
+
+    /**
+     * Writes every transaction matching {@code filter} to {@code output} and returns the number of rows.
+     * The output stream is flushed but left open.
+     */
+    public long export(TransactionFilter filter, Format format, OutputStream output) {
+        long start = System.nanoTime();
+        int timeout = Math.toIntExact(exportConfig.transactionTimeout().toSeconds());
+        long rows = readRouter.read(timeout, session -> {
+            try (JsonGenerator generator = jsonFactory.createGenerator(output, JsonEncoding.UTF8);
+                 Stream<Object[]> tuples = exportQuery(session, filter).getResultStream()) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+                // NDJSON lines are terminated explicitly instead of using the default space separator
+                generator.setRootValueSeparator(null);
+                if (format == Format.JSON) {
+                    generator.writeStartArray();
+                }
+
+                long count = 0;
+                Iterator<Object[]> iterator = tuples.iterator();
+                while (iterator.hasNext()) {
+                    writeTransaction(generator, iterator.next());
+                    if (format == Format.NDJSON) {
+                        generator.writeRaw('\n');
+                    }
+                    count++;
+                }
+
+                if (format == Format.JSON) {
+                    generator.writeEndArray();
+                }
+                generator.flush();
+                return count;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        metrics.exportFinished(format.name().toLowerCase(), rows, System.nanoTime() - start);
+        return rows;
+    }
+
+    private SelectionQuery<Object[]> exportQuery(SharedSessionContract session, TransactionFilter filter) {
+        List<String> conditions = filter.conditions();
+        String where = conditions.isEmpty() ? " " : " where " + String.join(" and ", conditions) + " ";
+        return filter.bind(session
+            .createSelectionQuery(EXPORT_SELECT + where + EXPORT_ORDER, Object[].class)
+            .setFetchSize(exportConfig.fetchSize())
+            .setReadOnly(true));
+    }
+
+    private static void writeTransaction(JsonGenerator generator, Object[] tuple) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("reference", (String) tuple[0]);
+        generator.writeStringField("timestamp", ((Instant) tuple[1]).toString());
+        generator.writeFieldName("amount");
+        generator.writeNumber((BigDecimal) tuple[2]);
+        generator.writeStringField("currency", (String) tuple[3]);
+        if (tuple[4] == null) {
+            generator.writeNullField("description");
+        } else {
+            generator.writeStringField("description", (String) tuple[4]);
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,146 @@
+package org.acme.service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.acme.exception.TransactionValidationException;
+import org.hibernate.query.SelectionQuery;
+
+/**
+ * Optional restrictions of a listing or export: transactions at or after {@code from}, before
+ * {@code to}, in {@code currency} and of the given {@code type}. Every {@code null} component matches
+ * all transactions.
+ */
+public record TransactionFilter(Instant from, Instant to, String currency, Type type) {
+
+    public static final TransactionFilter NONE = new TransactionFilter(null, null, null, null);
+
+    public enum Type {
+        INCOME,
+        EXPENSE
+    }
+
+    /**
+     * Parses request parameters. Timestamps are ISO-8601 instants; a date or a date and time without
+     * offset is taken as UTC, so {@code from=2024-01-01&to=2024-02-01} selects January.
+     */
+    public static TransactionFilter of(String from, String to, String currency, String type) {
+        Instant fromInstant = parseInstant("from", from);
+        Instant toInstant = parseInstant("to", to);
+        if (fromInstant != null && toInstant != null && !fromInstant.isBefore(toInstant)) {
+            throw TransactionValidationException.withMessage("Parameter 'from' must be before 'to'");
+        }
+
+        String currencyCode = null;
+        if (currency != null && !currency.isBlank()) {
+            currencyCode = currency.trim().toUpperCase(Locale.ROOT);
+            if (currencyCode.length() != 3) {
+                throw TransactionValidationException.withMessage("Currency must be a 3-letter ISO code");
+            }
+        }
+        return new TransactionFilter(fromInstant, toInstant, currencyCode, parseType(type));
+    }
+
+    public boolean isEmpty() {
+        return from == null && to == null && currency == null && type == null;
+    }
+
+    public String typeName() {
+        return type == null ? null : type.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The filter as query parameters, each prefixed with {@code &}, for links that keep it applied.
+     */
+    public String toQueryString() {
+        StringBuilder query = new StringBuilder();
+        appendParameter(query, "from", from);
+        appendParameter(query, "to", to);
+        appendParameter(query, "currency", currency);
+        appendParameter(query, "type", typeName());
+        return query.toString();
+    }
+
+    /**
+     * HQL conditions over {@code BankTransaction}. The amount sign is a literal so PostgreSQL can match
+     * the partial income and expense indexes.
+     */
+    List<String> conditions() {
+        List<String> conditions = new ArrayList<>(4);
+        if (from != null) {
+            conditions.add("timestamp >= :from");
+        }
+        if (to != null) {
+            conditions.add("timestamp < :to");
+        }
+        if (currency != null) {
+            conditions.add("currency = :currency");
+        }
+        if (type == Type.INCOME) {
+            conditions.add("amount > 0");
+        } else if (type == Type.EXPENSE) {
+            conditions.add("amount < 0");
+        }
+        return conditions;
+    }
+
+    <R> SelectionQuery<R> bind(SelectionQuery<R> query) {
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (currency != null) {
+            query.setParameter("currency", currency);
+        }
+        return query;
+    }
+
+    private static Instant parseInstant(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            if (trimmed.length() == 10) {
+                return LocalDate.parse(trimmed).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            try {
+                return Instant.parse(trimmed);
+            } catch (DateTimeParseException withoutOffset) {
+                return LocalDateTime.parse(trimmed).toInstant(ZoneOffset.UTC);
+            }
+        } catch (DateTimeParseException ex) {
+            throw TransactionValidationException.withMessage(
+                "Invalid '%s' timestamp '%s', expected ISO-8601 like 2024-01-15T10:30:00Z".formatted(name, value));
+        }
+    }
+
+    private static Type parseType(String type) {
+        if (type == null || type.isBlank()) {
+            return null;
+        }
+        return switch (type.trim().toLowerCase(Locale.ROOT)) {
+            case "income" -> Type.INCOME;
+            case "expense" -> Type.EXPENSE;
+            default -> throw TransactionValidationException.withMessage(
+                "Invalid type '%s', expected 'income' or 'expense'".formatted(type));
+        };
+    }
+
+    private static void appendParameter(StringBuilder query, String name, Object value) {
+        if (value != null) {
+            query.append('&').append(name).append('=')
+                .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+        }
+    }
+}
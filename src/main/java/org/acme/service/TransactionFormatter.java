@@ -0,0 +1,177 @@
+package org.acme.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Formats amounts like {@code DecimalFormat("###,##0.##")} with a space as grouping separator and
+ * timestamps like {@code "yyyy-MM-dd HH:mm:ss z"} in UTC, producing exactly the same text as those
+ * formatters. Safe for concurrent use without locking: formatting works on per-call buffers, and the
+ * caches hold immutable entries that are replaced as a whole, so a racing reader sees either a complete
+ * entry or a miss.
+ */
+@ApplicationScoped
+public class TransactionFormatter {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd HH:mm:ss z")
+            .withZone(ZoneId.of("UTC"));
+    // DecimalFormat is not thread-safe; the prototype is built once with the class, each use formats with a copy
+    private static final DecimalFormat AMOUNT_FORMAT = newAmountFormat();
+
+    private static final int MAX_FAST_PRECISION = 18;
+    private static final int TIMESTAMP_LENGTH = "2024-01-15 10:30:00 UTC".length();
+    private static final int TIMESTAMP_CACHE_BITS = 12;
+    private static final int DAY_CACHE_SIZE = 1024;
+
+    private final TimestampEntry[] timestamps = new TimestampEntry[1 << TIMESTAMP_CACHE_BITS];
+    private final DayEntry[] days = new DayEntry[DAY_CACHE_SIZE];
+
+    public String formatAmount(BigDecimal amount, String currency) {
+        StringBuilder out = new StringBuilder(24);
+        appendAmount(out, amount, currency);
+        return out.toString();
+    }
+
+    /**
+     * Appends the amount followed by a space and the currency code, letting callers that format many
+     * rows reuse one buffer.
+     */
+    public void appendAmount(StringBuilder out, BigDecimal amount, String currency) {
+        appendAmount(out, amount);
+        out.append(' ').append(currency);
+    }
+
+    public void appendAmount(StringBuilder out, BigDecimal amount) {
+        BigDecimal rounded = amount.scale() > 2 || amount.scale() < 0
+                ? amount.setScale(2, RoundingMode.HALF_EVEN)
+                : amount;
+        if (rounded.precision() > MAX_FAST_PRECISION) {
+            out.append(((DecimalFormat) AMOUNT_FORMAT.clone()).format(amount));
+            return;
+        }
+
+        int scale = rounded.scale();
+        long unscaled = Math.abs(rounded.scaleByPowerOfTen(scale).longValueExact());
+        long integerPart = scale == 2 ? unscaled / 100 : scale == 1 ? unscaled / 10 : unscaled;
+        int cents = scale == 2 ? (int) (unscaled % 100) : scale == 1 ? (int) (unscaled % 10) * 10 : 0;
+
+        // DecimalFormat keeps the sign of negative amounts that round to zero
+        if (amount.signum() < 0) {
+            out.append('-');
+        }
+        appendGrouped(out, integerPart);
+        if (cents != 0) {
+            out.append('.').append((char) ('0' + cents / 10));
+            if (cents % 10 != 0) {
+                out.append((char) ('0' + cents % 10));
+            }
+        }
+    }
+
+    public String formatTimestamp(Instant timestamp) {
+        long second = timestamp.getEpochSecond();
+        // listing pages often hold timestamps a fixed interval apart, so spread them with a multiplicative hash
+        int slot = (int) ((second * 0x9E3779B97F4A7C15L) >>> (64 - TIMESTAMP_CACHE_BITS));
+        TimestampEntry cached = timestamps[slot];
+        if (cached != null && cached.epochSecond == second) {
+            return cached.text;
+        }
+
+        String text = buildTimestamp(timestamp, second);
+        timestamps[slot] = new TimestampEntry(second, text);
+        return text;
+    }
+
+    private String buildTimestamp(Instant timestamp, long second) {
+        long epochDay = Math.floorDiv(second, 86_400L);
+        String day = formatDay(epochDay);
+        if (day == null) {
+            return DATE_TIME_FORMATTER.format(timestamp);
+        }
+
+        int secondOfDay = (int) Math.floorMod(second, 86_400L);
+        char[] chars = new char[TIMESTAMP_LENGTH];
+        day.getChars(0, 10, chars, 0);
+        chars[10] = ' ';
+        putTwoDigits(chars, 11, secondOfDay / 3_600);
+        chars[13] = ':';
+        putTwoDigits(chars, 14, secondOfDay / 60 % 60);
+        chars[16] = ':';
+        putTwoDigits(chars, 17, secondOfDay % 60);
+        chars[19] = ' ';
+        chars[20] = 'U';
+        chars[21] = 'T';
+        chars[22] = 'C';
+        return new String(chars);
+    }
+
+    /**
+     * Returns {@code yyyy-MM-dd} for years 1 to 9999, or {@code null} for years the JDK formatter
+     * prints differently (year of era, sign for five digits).
+     */
+    private String formatDay(long epochDay) {
+        int slot = (int) (epochDay & (DAY_CACHE_SIZE - 1));
+        DayEntry cached = days[slot];
+        if (cached != null && cached.epochDay == epochDay) {
+            return cached.text;
+        }
+
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        if (date.getYear() < 1 || date.getYear() > 9999) {
+            return null;
+        }
+        char[] chars = new char[10];
+        putTwoDigits(chars, 0, date.getYear() / 100);
+        putTwoDigits(chars, 2, date.getYear() % 100);
+        chars[4] = '-';
+        putTwoDigits(chars, 5, date.getMonthValue());
+        chars[7] = '-';
+        putTwoDigits(chars, 8, date.getDayOfMonth());
+        String text = new String(chars);
+        days[slot] = new DayEntry(epochDay, text);
+        return text;
+    }
+
+    private static void appendGrouped(StringBuilder out, long value) {
+        char[] digits = new char[26];
+        int position = digits.length;
+        int count = 0;
+        do {
+            if (count > 0 && count % 3 == 0) {
+                digits[--position] = ' ';
+            }
+            digits[--position] = (char) ('0' + value % 10);
+            value /= 10;
+            count++;
+        } while (value != 0);
+        out.append(digits, position, digits.length - position);
+    }
+
+    private static void putTwoDigits(char[] chars, int offset, int value) {
+        chars[offset] = (char) ('0' + value / 10);
+        chars[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    private static DecimalFormat newAmountFormat() {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.US);
+        symbols.setDecimalSeparator('.');
+        symbols.setGroupingSeparator(' ');
+        return new DecimalFormat("###,##0.##", symbols);
+    }
+
+    private record TimestampEntry(long epochSecond, String text) {
+    }
+
+    private record DayEntry(long epochDay, String text) {
+    }
+}
@@ -0,0 +1,8 @@
+package org.acme.service;
+
+import java.util.List;
+
+import org.acme.service.TransactionViewService.TransactionRow;
+
+public record TransactionPage(List<TransactionRow> rows, int pageSize, String nextCursor) {
+}
@@ -0,0 +1,519 @@
+package org.acme.service;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.acme.config.TransactionsConfig;
+import org.acme.data.BankTransaction;
+import org.acme.persistence.ClusterNotifications;
+import org.acme.service.TransactionViewService.TransactionRow;
+import org.hibernate.Session;
+
+/**
+ * Columnar in-memory copy of {@code bank_transaction} that serves listings, filters and the largest
+ * income without touching the database. It is loaded at startup and every committed import chunk is
+ * added as a new sorted segment; small segments are merged size-tiered, so a snapshot holds a
+ * logarithmic number of them. Readers work on an immutable snapshot and never block. Rows imported by
+ * other replicas are loaded by their id ranges on a thread of its own; notifications that arrive meanwhile
+ * are handled together in the next round, and the whole table is loaded again only when notifications may
+ * have been missed.
+ */
+@ApplicationScoped
+public class TransactionReadModel {
+
+    private static final String LOAD_SQL = """
+        select id, reference, transaction_timestamp, amount, currency, description
+        from bank_transaction order by transaction_timestamp, id""";
+    private static final String LOAD_RANGE_SQL = """
+        select id, reference, transaction_timestamp, amount, currency, description
+        from bank_transaction where id between ? and ? order by transaction_timestamp, id""";
+    private static final int LOAD_FETCH_SIZE = 10_000;
+    private static final Object STAGED_KEY = new Object();
+
+    private record Snapshot(List<ColumnarSegment> segments, long rows, String largestIncomeReference) {
+
+        static Snapshot of(List<ColumnarSegment> segments) {
+            long rows = 0;
+            ColumnarSegment bestSegment = null;
+            int bestRow = -1;
+            for (ColumnarSegment segment : segments) {
+                rows += segment.size();
+                int row = segment.largestIncome();
+                if (row >= 0 && (bestSegment == null || ColumnarSegment.outranksIncome(segment, row, bestSegment, bestRow))) {
+                    bestSegment = segment;
+                    bestRow = row;
+                }
+            }
+            return new Snapshot(List.copyOf(segments), rows, bestSegment == null ? null : bestSegment.reference(bestRow));
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionSynchronizationRegistry synchronizationRegistry;
+    private final TransactionsVersion transactionsVersion;
+    private final boolean enabled;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final Map<String, Short> currencyIndexes = new ConcurrentHashMap<>();
+    private final ExecutorService peerLoader = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("read-model-peer-loader").daemon().factory());
+    private volatile String[] currencyCodes = new String[0];
+    private volatile Snapshot snapshot;
+    // guarded by lock: chunks committed while a load is running, reconciled once it has finished
+    private List<ColumnarSegment> pending;
+    // guarded by lock: imports of other replicas not loaded yet
+    private List<ClusterNotifications.IdRange> peerRanges = new ArrayList<>();
+    private boolean peerReloadNeeded;
+    private boolean peerLoadScheduled;
+
+    public TransactionReadModel(EntityManager entityManager, TransactionSynchronizationRegistry synchronizationRegistry,
+                                TransactionsVersion transactionsVersion, TransactionsConfig config) {
+        this.entityManager = entityManager;
+        this.synchronizationRegistry = synchronizationRegistry;
+        this.transactionsVersion = transactionsVersion;
+        this.enabled = config.readModel().enabled();
+    }
+
+    void load(@Observes StartupEvent event) {
+        reload();
+    }
+
+    void onPeerImported(@Observes ClusterNotifications.PeerImported event) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (event.missed()) {
+                peerReloadNeeded = true;
+            } else {
+                peerRanges.addAll(event.ranges());
+            }
+            if (peerLoadScheduled) {
+                return;
+            }
+            peerLoadScheduled = true;
+        } finally {
+            lock.unlock();
+        }
+        peerLoader.execute(this::loadPeerImports);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        peerLoader.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Replaces the model with a fresh copy of the table. Listings fall back to the database meanwhile.
+     */
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        reloadLock.lock();
+        try {
+            lock.lock();
+            try {
+                snapshot = null;
+                pending = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            long start = System.nanoTime();
+            List<ColumnarSegment> loaded = QuarkusTransaction.requiringNew().call(() ->
+                entityManager.unwrap(Session.class).doReturningWork(connection -> loadSegments(connection, LOAD_SQL)));
+
+            Snapshot current;
+            lock.lock();
+            try {
+                List<ColumnarSegment> segments = new ArrayList<>();
+                for (ColumnarSegment segment : loaded) {
+                    push(segments, segment);
+                }
+                // a chunk committed just before the scan started may already be part of it
+                for (ColumnarSegment segment : pending) {
+                    push(segments, segment.without(loaded));
+                }
+                pending = null;
+                current = Snapshot.of(segments);
+                snapshot = current;
+            } finally {
+                lock.unlock();
+            }
+            long bytes = current.segments().stream().mapToLong(ColumnarSegment::memoryBytes).sum();
+            Log.infof("Columnar read model loaded with %d transactions in %d segments (%d KiB) in %d ms",
+                current.rows(), current.segments().size(), bytes / 1024, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a persisted chunk once the surrounding transaction commits; rolled back chunks are dropped.
+     */
+    public void stage(List<BankTransaction> chunk) {
+        if (!enabled || chunk.isEmpty()) {
+            return;
+        }
+        ColumnarSegment segment = toSegment(chunk);
+        if (synchronizationRegistry.getTransactionKey() == null) {
+            publish(List.of(segment));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<ColumnarSegment> staged = (List<ColumnarSegment>) synchronizationRegistry.getResource(STAGED_KEY);
+        if (staged == null) {
+            List<ColumnarSegment> segments = new ArrayList<>();
+            synchronizationRegistry.putResource(STAGED_KEY, segments);
+            synchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        publish(segments);
+                    }
+                }
+            });
+            staged = segments;
+        }
+        // merged as they come, so a large atomic import holds few segments until it commits
+        push(staged, segment);
+    }
+
+    /**
+     * One page in {@code (timestamp desc, id desc)} order, with the same cursors as the database listing,
+     * or {@code null} while the model is not loaded.
+     */
+    public TransactionPage page(PageRequest request, TransactionViewService.RowFormatter rowFormatter) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        List<ColumnarSegment> segments = current.segments();
+        TransactionFilter filter = request.filter();
+        int pageSize = request.size();
+        int currency = -1;
+        if (filter.currency() != null) {
+            Short index = currencyIndexes.get(filter.currency());
+            if (index == null) {
+                return new TransactionPage(List.of(), pageSize, null);
+            }
+            currency = index;
+        }
+
+        RowMatcher matcher = new RowMatcher(filter, currency);
+        int[] positions = new int[segments.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = matcher.next(segments.get(i), matcher.start(segments.get(i), request.after()));
+        }
+
+        String[] codes = currencyCodes;
+        List<TransactionRow> rows = new ArrayList<>(Math.min(pageSize, 1024));
+        ColumnarSegment lastSegment = null;
+        int lastRow = -1;
+        while (true) {
+            int newest = -1;
+            for (int i = 0; i < positions.length; i++) {
+                if (positions[i] >= 0 && (newest < 0
+                        || ColumnarSegment.compare(segments.get(i), positions[i], segments.get(newest), positions[newest]) > 0)) {
+                    newest = i;
+                }
+            }
+            if (newest < 0) {
+                return new TransactionPage(rows, pageSize, null);
+            }
+            if (rows.size() == pageSize) {
+                String cursor = new PageCursor(lastSegment.timestamp(lastRow), lastSegment.id(lastRow)).encode();
+                return new TransactionPage(rows, pageSize, cursor);
+            }
+            ColumnarSegment segment = segments.get(newest);
+            int row = positions[newest];
+            rows.add(rowFormatter.toRow(segment.reference(row), segment.timestamp(row), segment.amount(row),
+                codes[segment.currency(row)], segment.description(row)));
+            lastSegment = segment;
+            lastRow = row;
+            positions[newest] = matcher.next(segment, row - 1);
+        }
+    }
+
+    /**
+     * Loads what other replicas imported until no notification is left.
+     */
+    private void loadPeerImports() {
+        while (true) {
+            List<ClusterNotifications.IdRange> ranges;
+            boolean reloadNeeded;
+            lock.lock();
+            try {
+                ranges = peerRanges;
+                reloadNeeded = peerReloadNeeded;
+                if (ranges.isEmpty() && !reloadNeeded) {
+                    peerLoadScheduled = false;
+                    return;
+                }
+                peerRanges = new ArrayList<>();
+                peerReloadNeeded = false;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                if (reloadNeeded) {
+                    reload();
+                } else {
+                    loadRanges(ranges);
+                }
+            } catch (RuntimeException ex) {
+                Log.errorf(ex, "Unable to load the imports of other replicas, listings read from the database"
+                    + " until the next notification loads the model again");
+                lock.lock();
+                try {
+                    snapshot = null;
+                    peerReloadNeeded = true;
+                    peerLoadScheduled = false;
+                } finally {
+                    lock.unlock();
+                }
+                transactionsVersion.bump();
+                return;
+            }
+            // pages rendered from the previous snapshot while loading were cached under the current version
+            transactionsVersion.bump();
+        }
+    }
+
+    /**
+     * Adds the rows in {@code ranges} that the model does not hold yet.
+     */
+    private void loadRanges(List<ClusterNotifications.IdRange> ranges) {
+        reloadLock.lock();
+        try {
+            if (snapshot == null) {
+                return;
+            }
+            List<ClusterNotifications.IdRange> merged = merge(ranges);
+            List<ColumnarSegment> loaded = QuarkusTransaction.requiringNew().call(() ->
+                entityManager.unwrap(Session.class).doReturningWork(connection -> {
+                    List<ColumnarSegment> segments = new ArrayList<>();
+                    for (ClusterNotifications.IdRange range : merged) {
+                        segments.addAll(loadSegments(connection, LOAD_RANGE_SQL, range.first(), range.last()));
+                    }
+                    return segments;
+                }));
+            publish(loaded);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static List<ClusterNotifications.IdRange> merge(List<ClusterNotifications.IdRange> ranges) {
+        List<ClusterNotifications.IdRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingLong(ClusterNotifications.IdRange::first));
+        List<ClusterNotifications.IdRange> merged = new ArrayList<>();
+        for (ClusterNotifications.IdRange range : sorted) {
+            ClusterNotifications.IdRange last = merged.isEmpty() ? null : merged.getLast();
+            if (last != null && range.first() <= last.last() + 1) {
+                merged.set(merged.size() - 1,
+                    new ClusterNotifications.IdRange(last.first(), Math.max(last.last(), range.last())));
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    public String largestIncomeReference() {
+        Snapshot current = snapshot;
+        return current == null ? null : current.largestIncomeReference();
+    }
+
+    private void publish(List<ColumnarSegment> committed) {
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                if (pending != null) {
+                    pending.addAll(committed);
+                }
+                return;
+            }
+            List<ColumnarSegment> current = snapshot.segments();
+            List<ColumnarSegment> segments = new ArrayList<>(current);
+            for (ColumnarSegment segment : committed) {
+                // id ranges of other replicas can include rows of this one, published before or after them
+                push(segments, segment.without(current));
+            }
+            snapshot = Snapshot.of(segments);
+        } finally {
+            lock.unlock();
+        }
+        // pages rendered between the commit and this point may have been cached from the previous snapshot
+        transactionsVersion.bump();
+    }
+
+    /**
+     * Appends {@code segment} and merges the tail while the newer segment has grown to at least half the
+     * size of the one before it, like a binary counter.
+     */
+    private static void push(List<ColumnarSegment> segments, ColumnarSegment segment) {
+        if (segment.size() == 0) {
+            return;
+        }
+        segments.add(segment);
+        while (segments.size() > 1) {
+            ColumnarSegment newer = segments.getLast();
+            ColumnarSegment older = segments.get(segments.size() - 2);
+            if (newer.size() * 2L < older.size() || !older.canMergeWith(newer)) {
+                return;
+            }
+            segments.removeLast();
+            segments.set(segments.size() - 1, ColumnarSegment.merge(older, newer));
+        }
+    }
+
+    private ColumnarSegment toSegment(List<BankTransaction> chunk) {
+        BankTransaction[] sorted = chunk.toArray(BankTransaction[]::new);
+        Arrays.sort(sorted, Comparator
+            .comparing((BankTransaction transaction) -> BankTransaction.storedTimestamp(transaction.getTimestamp()))
+            .thenComparingLong(transaction -> transaction.id));
+        ColumnarSegment.Builder builder = new ColumnarSegment.Builder(sorted.length, sorted.length * 16, sorted.length * 32);
+        for (BankTransaction transaction : sorted) {
+            builder.add(transaction.id, transaction.getTimestamp(), transaction.getAmount(),
+                currencyIndex(transaction.getCurrency()), transaction.getReference(), transaction.getDescription());
+        }
+        return builder.build();
+    }
+
+    private List<ColumnarSegment> loadSegments(Connection connection, String sql, long... parameters)
+            throws SQLException {
+        List<ColumnarSegment> segments = new ArrayList<>();
+        ColumnarSegment.Builder builder = new ColumnarSegment.Builder(LOAD_FETCH_SIZE, 0, 0);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setLong(i + 1, parameters[i]);
+            }
+            statement.setFetchSize(LOAD_FETCH_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (builder.isFull()) {
+                        segments.add(builder.build());
+                        builder = new ColumnarSegment.Builder(LOAD_FETCH_SIZE, 0, 0);
+                    }
+                    builder.add(resultSet.getLong(1), resultSet.getObject(3, OffsetDateTime.class).toInstant(),
+                        resultSet.getBigDecimal(4), currencyIndex(resultSet.getString(5)), resultSet.getString(2),
+                        resultSet.getString(6));
+                }
+            }
+        }
+        if (builder.size() > 0) {
+            segments.add(builder.build());
+        }
+        return segments;
+    }
+
+    private int currencyIndex(String code) {
+        Short index = currencyIndexes.get(code);
+        if (index != null) {
+            return index;
+        }
+        lock.lock();
+        try {
+            index = currencyIndexes.get(code);
+            if (index == null) {
+                String[] codes = Arrays.copyOf(currencyCodes, currencyCodes.length + 1);
+                codes[codes.length - 1] = code;
+                index = (short) (codes.length - 1);
+                // the code is readable before any segment referring to it is published
+                currencyCodes = codes;
+                currencyIndexes.put(code, index);
+            }
+            return index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Walks a segment from newest to oldest, skipping rows outside the filter.
+     */
+    private static final class RowMatcher {
+
+        private final Instant from;
+        private final Instant to;
+        private final int currency;
+        private final TransactionFilter.Type type;
+
+        private RowMatcher(TransactionFilter filter, int currency) {
+            this.from = filter.from();
+            this.to = filter.to();
+            this.currency = currency;
+            this.type = filter.type();
+        }
+
+        /**
+         * The newest row before the keyset position and the {@code to} bound.
+         */
+        int start(ColumnarSegment segment, PageCursor after) {
+            int end = segment.size();
+            if (after != null) {
+                end = Math.min(end, segment.countBefore(after.timestamp().getEpochSecond(),
+                    after.timestamp().getNano(), after.id()));
+            }
+            if (to != null) {
+                end = Math.min(end, segment.countBefore(to.getEpochSecond(), to.getNano(), Long.MIN_VALUE));
+            }
+            return end - 1;
+        }
+
+        /**
+         * The first matching row at or before {@code row}, or {@code -1} once the segment or the
+         * {@code from} bound is passed.
+         */
+        int next(ColumnarSegment segment, int row) {
+            for (; row >= 0; row--) {
+                if (from != null && (segment.epochSecond(row) < from.getEpochSecond()
+                        || (segment.epochSecond(row) == from.getEpochSecond() && segment.nano(row) < from.getNano()))) {
+                    return -1;
+                }
+                if ((currency < 0 || segment.currency(row) == currency)
+                        && (type == null || (type == TransactionFilter.Type.INCOME
+                            ? segment.unscaledAmount(row) > 0
+                            : segment.unscaledAmount(row) < 0))) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+    }
+}
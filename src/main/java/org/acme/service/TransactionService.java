@@ -1,35 +1,432 @@
 package org.acme.service;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.transaction.Transactional;
+import jakarta.enterprise.event.Event;
+import jakarta.persistence.EntityManager;
 
 import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 
+import org.acme.config.TransactionsConfig;
 import org.acme.data.BankTransaction;
+import org.acme.exception.IdempotencyKeyMismatchException;
 import org.acme.exception.TransactionValidationException;
+import org.acme.metrics.PhaseTimings;
+import org.acme.metrics.TransactionMetrics;
+import org.acme.persistence.BulkPersistenceEngine;
+import org.acme.persistence.ClusterNotifications;
+import org.acme.persistence.DailyRollupRepository;
+import org.acme.persistence.ProcessedUploadRepository;
+import org.acme.persistence.ProcessedUploadRepository.ProcessedUpload;
+import org.acme.persistence.ReferenceBloomFilter;
+import org.acme.persistence.ReferenceLocks;
+import org.acme.persistence.ReferenceLookup;
+import org.acme.service.TransactionViewService.TransactionRow;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.query.SelectionQuery;
+import org.hibernate.query.TupleTransformer;
 
 @ApplicationScoped
 public class TransactionService {
 
-    @Transactional
+    private static final String ROW_SELECT =
+        "select reference, timestamp, amount, currency, description, id from BankTransaction";
+    private static final String PAGE_ORDER = "order by timestamp desc, id desc";
+
+    private final EntityManager entityManager;
+    private final BulkPersistenceEngine persistenceEngine;
+    private final DailyRollupRepository rollupRepository;
+    private final ReferenceLookup referenceLookup;
+    private final ReferenceLocks referenceLocks;
+    private final ClusterNotifications clusterNotifications;
+    private final ProcessedUploadRepository processedUploads;
+    private final ImportRejectsStore rejectsStore;
+    private final ReferenceBloomFilter bloomFilter;
+    private final LargestIncomeTracker largestIncomeTracker;
+    private final TransactionReadModel readModel;
+    private final CsvValidationPool validationPool;
+    private final TransactionViewService viewService;
+    private final ReadRouter readRouter;
+    private final TransactionMetrics metrics;
+    private final Event<TransactionsImported> importedEvent;
+    private final TransactionsConfig.Import importConfig;
+    private final TransactionsConfig.Listing listingConfig;
+    private final TransactionsConfig.Duplicates duplicatesConfig;
+
+    public TransactionService(EntityManager entityManager, BulkPersistenceEngine persistenceEngine,
+                              DailyRollupRepository rollupRepository, ReferenceLookup referenceLookup,
+                              ReferenceLocks referenceLocks, ClusterNotifications clusterNotifications,
+                              ProcessedUploadRepository processedUploads, ImportRejectsStore rejectsStore,
+                              ReferenceBloomFilter bloomFilter, LargestIncomeTracker largestIncomeTracker,
+                              TransactionReadModel readModel, CsvValidationPool validationPool,
+                              TransactionViewService viewService, ReadRouter readRouter, TransactionMetrics metrics,
+                              Event<TransactionsImported> importedEvent, TransactionsConfig config) {
+        this.entityManager = entityManager;
+        this.persistenceEngine = persistenceEngine;
+        this.rollupRepository = rollupRepository;
+        this.referenceLookup = referenceLookup;
+        this.referenceLocks = referenceLocks;
+        this.clusterNotifications = clusterNotifications;
+        this.processedUploads = processedUploads;
+        this.rejectsStore = rejectsStore;
+        this.bloomFilter = bloomFilter;
+        this.largestIncomeTracker = largestIncomeTracker;
+        this.readModel = readModel;
+        this.validationPool = validationPool;
+        this.viewService = viewService;
+        this.readRouter = readRouter;
+        this.metrics = metrics;
+        this.importedEvent = importedEvent;
+        this.importConfig = config.importing();
+        this.listingConfig = config.listing();
+        this.duplicatesConfig = config.duplicates();
+    }
+
     public void importCsv(InputStream csvStream) {
-        List<BankTransaction> candidates = CsvParser.parse(csvStream);
-        validateNoDuplicatesInPayload(candidates);
-        validateNoDuplicatesInDatabase(candidates);
-        persistAllTransactions(candidates);
+        importCsv(csvStream, ImportMode.STRICT, rows -> {
+        });
+    }
+
+    public ImportResult importCsv(InputStream csvStream, ImportMode mode, IntConsumer progress) {
+        return importCsv(csvStream, mode, null, progress);
+    }
+
+    /**
+     * Imports the CSV and reports the number of rows stored from every chunk once it has been written.
+     * Partial imports skip invalid lines and duplicate references instead of failing and write them to a
+     * rejects file as they go. With a {@code fingerprint} the upload is recorded once it was imported, and
+     * an upload recorded before is not imported again.
+     */
+    public ImportResult importCsv(InputStream csvStream, ImportMode mode, UploadFingerprint fingerprint,
+                                  IntConsumer progress) {
+        int timeout = Math.toIntExact(importConfig.transactionTimeout().toSeconds());
+        ImportRun run = new ImportRun(mode, rejectsStore);
+        metrics.importStarted();
+        boolean succeeded = false;
+        try {
+            if (importConfig.atomic()) {
+                inTransaction(timeout, run.timings, () -> {
+                    // The claim makes a concurrent import of the same upload wait for this transaction.
+                    OptionalLong claim = fingerprint == null
+                        ? OptionalLong.empty()
+                        : processedUploads.claim(fingerprint.bodyFingerprint(), fingerprint.idempotencyKey(),
+                            fingerprint.sha256());
+                    if (fingerprint != null && claim.isEmpty()) {
+                        run.previousImport = sameUpload(fingerprint, processedUploads
+                            .find(fingerprint.bodyFingerprint(), fingerprint.idempotencyKey())
+                            .orElseThrow());
+                        return;
+                    }
+                    importChunks(csvStream, run, chunk -> progress.accept(importChunk(chunk, run)));
+                    if (claim.isPresent()) {
+                        processedUploads.complete(claim.getAsLong(), run.rowsRead - run.rejectedCount,
+                            run.rejectedCount);
+                    }
+                });
+                run.rowsStored = run.previousImport == null ? run.rowsRead - run.rejectedCount : 0;
+            } else {
+                if (fingerprint != null) {
+                    run.previousImport = findProcessedUpload(fingerprint).orElse(null);
+                }
+                if (run.previousImport == null) {
+                    importChunks(csvStream, run, chunk -> {
+                        int[] stored = new int[1];
+                        inTransaction(timeout, run.timings, () -> stored[0] = importChunk(chunk, run));
+                        run.rowsStored += stored[0];
+                        progress.accept(stored[0]);
+                    });
+                    if (fingerprint != null) {
+                        QuarkusTransaction.requiringNew().run(() -> processedUploads.record(
+                            fingerprint.bodyFingerprint(), fingerprint.idempotencyKey(), fingerprint.sha256(),
+                            run.rowsStored, run.rejectedCount));
+                    }
+                }
+            }
+            if (run.rejects != null) {
+                run.rejects.complete();
+            }
+            succeeded = true;
+        } finally {
+            if (!succeeded && run.rejects != null) {
+                run.rejects.discard();
+            }
+            metrics.importFinished(run.timings, run.rowsStored, run.rowsRead, succeeded);
+        }
+        if (run.previousImport != null) {
+            return ImportResult.replayOf(run.previousImport);
+        }
+        return new ImportResult(run.rowsStored, run.rejectedCount, run.firstRejected, run.rejects, null);
+    }
+
+    /**
+     * The earlier import of an upload with the same idempotency key or, failing that, the same body.
+     * Fails if the key was used for an upload with a different body.
+     */
+    public Optional<ProcessedUpload> findProcessedUpload(UploadFingerprint fingerprint) {
+        return QuarkusTransaction.joiningExisting().call(
+            () -> processedUploads.find(fingerprint.bodyFingerprint(), fingerprint.idempotencyKey()))
+            .map(previousImport -> sameUpload(fingerprint, previousImport));
+    }
+
+    /**
+     * Returns the earlier import unless it was found by the idempotency key of an upload with a different
+     * body. Uploads recorded before body hashes were stored are taken as the same.
+     */
+    private static ProcessedUpload sameUpload(UploadFingerprint fingerprint, ProcessedUpload previousImport) {
+        String key = fingerprint.idempotencyKey();
+        if (key != null && key.equals(previousImport.idempotencyKey()) && previousImport.bodySha256() != null
+                && !previousImport.bodySha256().equals(fingerprint.sha256())) {
+            throw new IdempotencyKeyMismatchException(
+                "Idempotency-Key '%s' was already used for a different upload".formatted(key));
+        }
+        return previousImport;
     }
 
     public List<BankTransaction> getAllTransactionsSortedByTimestamp() {
-        return BankTransaction.listAll(io.quarkus.panache.common.Sort.by("timestamp").descending());
+        return readRouter.read(session -> session
+            .createSelectionQuery("from BankTransaction order by timestamp desc", BankTransaction.class)
+            .getResultList());
+    }
+
+    public PageRequest pageRequest(String cursor, Integer size) {
+        return pageRequest(cursor, size, TransactionFilter.NONE);
+    }
+
+    public PageRequest pageRequest(String cursor, Integer size, TransactionFilter filter) {
+        PageCursor after = cursor == null || cursor.isEmpty() ? null : PageCursor.decode(cursor);
+        return new PageRequest(after, resolvePageSize(size), filter);
+    }
+
+    /**
+     * Reads one page of formatted rows from the read model when it is loaded, otherwise from the database.
+     * The query selects plain columns, so no entity or snapshot is created and each row is formatted
+     * straight from the result set.
+     */
+    public TransactionPage getTransactionPage(PageRequest request, String highlightReference) {
+        TransactionPage cached = readModel.page(request, viewService.rowFormatter(highlightReference));
+        if (cached != null) {
+            return cached;
+        }
+        int pageSize = request.size();
+        RowProjection projection = new RowProjection(pageSize, highlightReference);
+        List<TransactionRow> rows = readRouter.read(session -> rowQuery(session, request, projection)
+            .setMaxResults(pageSize + 1)
+            .setFetchSize(pageSize + 1)
+            .getResultList());
+        if (rows.size() <= pageSize) {
+            return new TransactionPage(rows, pageSize, null);
+        }
+        return new TransactionPage(rows.subList(0, pageSize), pageSize, projection.lastOnPage.encode());
+    }
+
+    /**
+     * Reads the page through a database cursor and hands out formatted rows in batches. Returns the
+     * cursor of the following page, or {@code null} on the last page.
+     */
+    public String streamTransactionPage(PageRequest request, int batchSize, String highlightReference,
+                                        Consumer<List<TransactionRow>> batchConsumer) {
+        TransactionPage cached = readModel.page(request, viewService.rowFormatter(highlightReference));
+        if (cached != null) {
+            List<TransactionRow> rows = cached.rows();
+            for (int start = 0; start < rows.size(); start += batchSize) {
+                batchConsumer.accept(rows.subList(start, Math.min(start + batchSize, rows.size())));
+            }
+            return cached.nextCursor();
+        }
+        return readRouter.read(session -> {
+            RowProjection projection = new RowProjection(request.size(), highlightReference);
+            boolean hasMore = false;
+            List<TransactionRow> batch = new ArrayList<>(batchSize);
+            try (Stream<TransactionRow> rows = rowQuery(session, request, projection)
+                    .setMaxResults(request.size() + 1)
+                    .setFetchSize(batchSize)
+                    .getResultStream()) {
+                Iterator<TransactionRow> iterator = rows.iterator();
+                int count = 0;
+                while (iterator.hasNext()) {
+                    TransactionRow row = iterator.next();
+                    if (++count > request.size()) {
+                        hasMore = true;
+                        break;
+                    }
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        batchConsumer.accept(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(batch);
+            }
+            return hasMore ? projection.lastOnPage.encode() : null;
+        });
+    }
+
+    /**
+     * Selects the page in {@code (timestamp desc, id desc)} order. Filters only add conditions to the
+     * index range scan: time bounds and the keyset narrow the timestamp range, currency and amount sign
+     * are served by the {@code (currency, timestamp, id)} and partial income and expense indexes.
+     */
+    private static SelectionQuery<TransactionRow> rowQuery(SharedSessionContract session, PageRequest request,
+                                                           RowProjection projection) {
+        List<String> conditions = new ArrayList<>(request.filter().conditions());
+        if (!request.firstPage()) {
+            conditions.add("(timestamp, id) < (:afterTimestamp, :afterId)");
+        }
+        String where = conditions.isEmpty() ? " " : " where " + String.join(" and ", conditions) + " ";
+        SelectionQuery<Object[]> query = session.createSelectionQuery(ROW_SELECT + where + PAGE_ORDER, Object[].class);
+        if (!request.firstPage()) {
+            query.setParameter("afterTimestamp", request.after().timestamp())
+                .setParameter("afterId", request.after().id());
+        }
+        return request.filter().bind(query).setTupleTransformer(projection);
     }
 
-    private void validateNoDuplicatesInPayload(List<BankTransaction> candidates) {
+    public String findLargestIncomeReference() {
+        if (readModel.isReady()) {
+            return readModel.largestIncomeReference();
+        }
+        return largestIncomeTracker.largestIncomeReference();
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return listingConfig.pageSize();
+        }
+        if (size < 1 || size > listingConfig.maxPageSize()) {
+            throw TransactionValidationException.withMessage(
+                "Page size must be between 1 and %d".formatted(listingConfig.maxPageSize())
+            );
+        }
+        return size;
+    }
+
+    private void importChunks(InputStream csvStream, ImportRun run, Consumer<CsvParser.Chunk> chunkImporter) {
+        try (CsvParser.RecordReader reader = CsvParser.open(csvStream, validationPool.parallelism(),
+                importConfig.maxErrors().orElse(Integer.MAX_VALUE))) {
+            CsvParser.Chunk chunk = nextChunk(reader, run);
+            if (chunk.isEmpty()) {
+                throw TransactionValidationException.withMessage("No valid transaction rows found in CSV");
+            }
+            while (!chunk.isEmpty()) {
+                run.reject(chunk.rejected());
+                chunkImporter.accept(chunk);
+                run.writeRejected();
+                chunk = nextChunk(reader, run);
+            }
+        }
+    }
+
+    private CsvParser.Chunk nextChunk(CsvParser.RecordReader reader, ImportRun run) {
+        try {
+            return run.timings.time("parse", () -> reader.nextChunk(importConfig.chunkSize(), run.partial));
+        } finally {
+            run.rowsRead = reader.recordsRead();
+        }
+    }
+
+    /**
+     * Writes the valid rows of the chunk and returns how many were stored.
+     */
+    private int importChunk(CsvParser.Chunk chunk, ImportRun run) {
+        List<BankTransaction> rows = chunk.transactions();
+        PhaseTimings timings = run.timings;
+        if (duplicatesConfig.strategy() == TransactionsConfig.Duplicates.Strategy.LOOKUP) {
+            List<String> references = chunk.transactions().stream().map(BankTransaction::getReference).toList();
+            timings.time("duplicates", () -> referenceLocks.lock(references));
+        }
+        if (run.partial) {
+            rows = timings.time("duplicates", () -> withoutDuplicates(chunk, run));
+            if (duplicatesConfig.strategy() == TransactionsConfig.Duplicates.Strategy.ON_CONFLICT) {
+                List<BankTransaction> candidates = rows;
+                List<String> conflicts = timings.time("persist",
+                    () -> persistenceEngine.writeIgnoringConflicts(candidates));
+                rows = withoutConflicts(chunk, candidates, conflicts, run);
+            } else {
+                List<BankTransaction> accepted = rows;
+                timings.time("persist", () -> persistenceEngine.write(accepted));
+            }
+        } else {
+            List<BankTransaction> candidates = rows;
+            timings.time("duplicates", () -> validateNoDuplicatesInPayload(candidates, run));
+            if (duplicatesConfig.strategy() == TransactionsConfig.Duplicates.Strategy.ON_CONFLICT) {
+                List<String> conflicts = timings.time("persist",
+                    () -> persistenceEngine.writeIgnoringConflicts(candidates));
+                if (!conflicts.isEmpty()) {
+                    throw referencesAlreadyExist(conflicts);
+                }
+            } else {
+                timings.time("duplicates", () -> validateNoDuplicatesInDatabase(candidates));
+                timings.time("persist", () -> persistenceEngine.write(candidates));
+            }
+        }
+        for (BankTransaction candidate : chunk.transactions()) {
+            run.seenReferences.add(candidate.getReference());
+        }
+        if (!rows.isEmpty()) {
+            afterWrite(rows, timings);
+        }
+        return rows.size();
+    }
+
+    private void afterWrite(List<BankTransaction> chunk, PhaseTimings timings) {
+        timings.time("persist", () -> rollupRepository.add(chunk));
+        for (BankTransaction transaction : chunk) {
+            bloomFilter.add(transaction.getReference());
+        }
+        readModel.stage(chunk);
+        clusterNotifications.publish(chunk);
+        importedEvent.fire(new TransactionsImported(chunk.size(), findLargestIncome(chunk)));
+        // Flushed rows make later chunks see this one in the duplicate check; clearing keeps the heap flat.
+        timings.time("flush", () -> {
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    /**
+     * Runs {@code work} in a new transaction and records the time spent committing it.
+     */
+    private static void inTransaction(int timeout, PhaseTimings timings, Runnable work) {
+        long[] workDone = new long[1];
+        QuarkusTransaction.requiringNew().timeout(timeout).run(() -> {
+            work.run();
+            workDone[0] = System.nanoTime();
+        });
+        timings.add("commit", System.nanoTime() - workDone[0]);
+    }
+
+    private static LargestIncome findLargestIncome(List<BankTransaction> chunk) {
+        LargestIncome largest = null;
+        for (BankTransaction transaction : chunk) {
+            if (transaction.getAmount().signum() > 0) {
+                largest = LargestIncome.max(largest, LargestIncome.of(transaction));
+            }
+        }
+        return largest;
+    }
+
+    private void validateNoDuplicatesInPayload(List<BankTransaction> candidates, ImportRun run) {
+        Set<String> repeated = repeatedFromEarlierChunks(candidates, run);
         Set<String> references = new HashSet<>();
         for (BankTransaction candidate : candidates) {
-            if (!references.add(candidate.getReference())) {
+            if (repeated.contains(candidate.getReference()) || !references.add(candidate.getReference())) {
                 throw TransactionValidationException.withMessage(
                     "Duplicate reference '%s' in uploaded file".formatted(candidate.getReference())
                 );
@@ -37,26 +434,170 @@ public class TransactionService {
         }
     }
 
-    private void validateNoDuplicatesInDatabase(List<BankTransaction> candidates) {
-        List<String> references = candidates.stream()
+    /**
+     * The references of the chunk that an earlier chunk of the same import already had. Every reference
+     * of an earlier chunk is stored by now, written by this import or found to exist, so the few candidates
+     * the hashed set reports are confirmed with a lookup.
+     */
+    private Set<String> repeatedFromEarlierChunks(List<BankTransaction> candidates, ImportRun run) {
+        List<String> seen = candidates.stream()
             .map(BankTransaction::getReference)
+            .filter(run.seenReferences::mightContain)
+            .distinct()
             .toList();
+        return seen.isEmpty() ? Set.of() : Set.copyOf(referenceLookup.findExisting(seen));
+    }
 
-        List<String> existingReferences = BankTransaction.<BankTransaction>list("reference in ?1", references)
-            .stream()
+    private void validateNoDuplicatesInDatabase(List<BankTransaction> candidates) {
+        List<String> references = candidates.stream()
             .map(BankTransaction::getReference)
+            .filter(bloomFilter::mightContain)
             .toList();
 
+        List<String> existingReferences = referenceLookup.findExisting(references);
         if (!existingReferences.isEmpty()) {
-            throw new TransactionValidationException(
-                List.of("References already exist: " + String.join(", ", existingReferences))
-            );
+            throw referencesAlreadyExist(existingReferences);
+        }
+    }
+
+    /**
+     * The rows of a partial import that are new: rows repeating a reference of an earlier row, in this chunk
+     * or an earlier one, and, with the {@code lookup} strategy, rows whose reference is already stored are
+     * rejected.
+     */
+    private List<BankTransaction> withoutDuplicates(CsvParser.Chunk chunk, ImportRun run) {
+        List<BankTransaction> candidates = chunk.transactions();
+        Set<String> repeated = repeatedFromEarlierChunks(candidates, run);
+        Set<String> existing = Set.of();
+        if (duplicatesConfig.strategy() == TransactionsConfig.Duplicates.Strategy.LOOKUP) {
+            existing = Set.copyOf(referenceLookup.findExisting(candidates.stream()
+                .map(BankTransaction::getReference)
+                .filter(bloomFilter::mightContain)
+                .distinct()
+                .toList()));
+        }
+        Set<String> references = new HashSet<>();
+        List<BankTransaction> rows = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            BankTransaction candidate = candidates.get(i);
+            String reference = candidate.getReference();
+            if (repeated.contains(reference) || !references.add(reference)) {
+                run.reject(chunk.lines()[i], "Duplicate reference '%s' in uploaded file".formatted(reference),
+                    candidate);
+            } else if (existing.contains(reference)) {
+                run.reject(chunk.lines()[i], "Reference already exists", candidate);
+            } else {
+                rows.add(candidate);
+            }
         }
+        return rows;
     }
 
-    private void persistAllTransactions(List<BankTransaction> candidates) {
-        for (BankTransaction transaction : candidates) {
-            transaction.persist();
+    /**
+     * The written rows of a partial import without those skipped by {@code ON CONFLICT DO NOTHING}.
+     */
+    private static List<BankTransaction> withoutConflicts(CsvParser.Chunk chunk, List<BankTransaction> written,
+                                                          List<String> conflicts, ImportRun run) {
+        if (conflicts.isEmpty()) {
+            return written;
+        }
+        Set<String> conflicting = Set.copyOf(conflicts);
+        Set<BankTransaction> writtenRows = Collections.newSetFromMap(new IdentityHashMap<>());
+        writtenRows.addAll(written);
+        List<BankTransaction> rows = new ArrayList<>(written.size());
+        for (int i = 0; i < chunk.transactions().size(); i++) {
+            BankTransaction row = chunk.transactions().get(i);
+            if (!writtenRows.contains(row)) {
+                continue;
+            }
+            if (conflicting.contains(row.getReference())) {
+                run.reject(chunk.lines()[i], "Reference already exists", row);
+            } else {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static TransactionValidationException referencesAlreadyExist(List<String> references) {
+        return new TransactionValidationException(
+            List.of("References already exist: " + String.join(", ", references))
+        );
+    }
+
+    /**
+     * Formats each selected tuple into a {@link TransactionRow} and remembers the keyset position of
+     * the last row that belongs on the page.
+     */
+    private final class RowProjection implements TupleTransformer<TransactionRow> {
+
+        private final int pageSize;
+        private final TransactionViewService.RowFormatter rowFormatter;
+        private int count;
+        private PageCursor lastOnPage;
+
+        private RowProjection(int pageSize, String highlightReference) {
+            this.pageSize = pageSize;
+            this.rowFormatter = viewService.rowFormatter(highlightReference);
+        }
+
+        @Override
+        public TransactionRow transformTuple(Object[] tuple, String[] aliases) {
+            Instant timestamp = (Instant) tuple[1];
+            if (++count == pageSize) {
+                lastOnPage = new PageCursor(timestamp, (Long) tuple[5]);
+            }
+            return rowFormatter.toRow((String) tuple[0], timestamp, (BigDecimal) tuple[2], (String) tuple[3],
+                (String) tuple[4]);
+        }
+    }
+
+    private static final class ImportRun {
+
+        private final PhaseTimings timings = new PhaseTimings();
+        private final boolean partial;
+        private final ImportRejectsStore rejectsStore;
+        private final List<CsvParser.RejectedLine> rejectedInChunk = new ArrayList<>();
+        private final List<CsvParser.RejectedLine> firstRejected = new ArrayList<>();
+        private final SeenReferences seenReferences = new SeenReferences();
+        private ImportRejectsStore.RejectsFile rejects;
+        private long rejectedCount;
+        private long rowsRead;
+        private long rowsStored;
+        private ProcessedUpload previousImport;
+
+        private ImportRun(ImportMode mode, ImportRejectsStore rejectsStore) {
+            this.partial = mode == ImportMode.PARTIAL;
+            this.rejectsStore = rejectsStore;
+        }
+
+        private void reject(long line, String reason, BankTransaction row) {
+            String description = row.getDescription() == null ? "" : row.getDescription();
+            reject(List.of(new CsvParser.RejectedLine(line, List.of(reason), List.of(row.getReference(),
+                row.getTimestamp().toString(), row.getAmount().toPlainString(), row.getCurrency(), description))));
+        }
+
+        private void reject(List<CsvParser.RejectedLine> lines) {
+            rejectedInChunk.addAll(lines);
+        }
+
+        /**
+         * Writes the lines rejected in the current chunk to the rejects file in line order, keeping only the
+         * first ones for the report.
+         */
+        private void writeRejected() {
+            if (rejectedInChunk.isEmpty()) {
+                return;
+            }
+            rejectedInChunk.sort(Comparator.comparingLong(CsvParser.RejectedLine::line));
+            if (rejects == null) {
+                rejects = rejectsStore.create();
+            }
+            rejects.write(rejectedInChunk);
+            rejectedCount += rejectedInChunk.size();
+            int reported = Math.min(ImportReport.REPORTED_LINES - firstRejected.size(), rejectedInChunk.size());
+            firstRejected.addAll(rejectedInChunk.subList(0, Math.max(0, reported)));
+            rejectedInChunk.clear();
         }
     }
 }
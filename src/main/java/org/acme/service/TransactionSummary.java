@@ -0,0 +1,20 @@
+package org.acme.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Income, expense and running balance per currency for days in {@code [from, to)}. Expenses are negative;
+ * balances include every transaction before {@code from}.
+ */
+public record TransactionSummary(LocalDate from, LocalDate to, String granularity, List<CurrencySummary> currencies) {
+
+    public record CurrencySummary(String currency, BigDecimal openingBalance, BigDecimal closingBalance,
+                                  BigDecimal income, BigDecimal expense, List<PeriodSummary> periods) {
+    }
+
+    public record PeriodSummary(LocalDate period, BigDecimal income, BigDecimal expense, BigDecimal net,
+                                long incomeCount, long expenseCount, BigDecimal balance) {
+    }
+}
@@ -0,0 +1,66 @@
+package org.acme.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.acme.persistence.DailyRollupRepository;
+import org.acme.persistence.DailyRollupRepository.Granularity;
+import org.acme.persistence.DailyRollupRepository.PeriodTotals;
+import org.acme.service.TransactionSummary.CurrencySummary;
+import org.acme.service.TransactionSummary.PeriodSummary;
+
+/**
+ * Builds summaries from the daily rollups only: a year by month reads one rollup row per day and
+ * currency, however many transactions those days hold.
+ */
+@ApplicationScoped
+public class TransactionSummaryService {
+
+    private final DailyRollupRepository rollupRepository;
+    private final ReadRouter readRouter;
+
+    public TransactionSummaryService(DailyRollupRepository rollupRepository, ReadRouter readRouter) {
+        this.rollupRepository = rollupRepository;
+        this.readRouter = readRouter;
+    }
+
+    public TransactionSummary summarize(LocalDate from, LocalDate to, String currency, Granularity granularity) {
+        return readRouter.read(session -> {
+            Map<String, BigDecimal> openingBalances = from == null
+                ? Map.of()
+                : rollupRepository.balancesBefore(session, from, currency);
+            Map<String, List<PeriodTotals>> byCurrency = new TreeMap<>();
+            openingBalances.keySet().forEach(code -> byCurrency.put(code, new ArrayList<>()));
+            for (PeriodTotals totals : rollupRepository.totals(session, from, to, currency, granularity)) {
+                byCurrency.computeIfAbsent(totals.currency(), code -> new ArrayList<>()).add(totals);
+            }
+
+            List<CurrencySummary> currencies = new ArrayList<>(byCurrency.size());
+            byCurrency.forEach((code, periods) ->
+                currencies.add(summarize(code, openingBalances.getOrDefault(code, BigDecimal.ZERO), periods)));
+            return new TransactionSummary(from, to, granularity.name().toLowerCase(), currencies);
+        });
+    }
+
+    private static CurrencySummary summarize(String currency, BigDecimal openingBalance, List<PeriodTotals> periods) {
+        BigDecimal balance = openingBalance;
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        List<PeriodSummary> summaries = new ArrayList<>(periods.size());
+        for (PeriodTotals totals : periods) {
+            BigDecimal net = totals.income().add(totals.expense());
+            balance = balance.add(net);
+            income = income.add(totals.income());
+            expense = expense.add(totals.expense());
+            summaries.add(new PeriodSummary(totals.period(), totals.income(), totals.expense(), net,
+                totals.incomeCount(), totals.expenseCount(), balance));
+        }
+        return new CurrencySummary(currency, openingBalance, balance, income, expense, summaries);
+    }
+}
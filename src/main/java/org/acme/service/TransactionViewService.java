@@ -1,64 +1,76 @@
 package org.acme.service;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Objects;
 
 import org.acme.data.BankTransaction;
 
 import io.quarkus.qute.TemplateData;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 
 @ApplicationScoped
 public class TransactionViewService {
 
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
-            .ofPattern("yyyy-MM-dd HH:mm:ss z")
-            .withZone(ZoneId.of("UTC"));
+    private final TransactionFormatter formatter;
 
-    private static final DecimalFormat AMOUNT_FORMAT = createAmountFormat();
-
-    public List<TransactionRow> buildTransactionRows(List<BankTransaction> entities) {
-        String highlightReference = findLargestIncomeReference(entities);
-        return entities.stream()
-                .map(entity -> toRow(entity, highlightReference))
-                .toList();
+    public TransactionViewService(TransactionFormatter formatter) {
+        this.formatter = formatter;
     }
 
-    private static DecimalFormat createAmountFormat() {
-        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.US);
-        symbols.setDecimalSeparator('.');
-        symbols.setGroupingSeparator(' ');
-        return new DecimalFormat("###,##0.##", symbols);
+    /**
+     * Initializes the formatters while the application starts rather than on the first listing. In native
+     * images their static state is already built at image build time.
+     */
+    void warmUp(@Observes StartupEvent event) {
+        rowFormatter(null).toRow("", Instant.EPOCH, BigDecimal.ONE, "EUR", null);
     }
 
-    private String findLargestIncomeReference(List<BankTransaction> entities) {
-        return entities.stream()
-                .filter(tx -> tx.getAmount().compareTo(BigDecimal.ZERO) > 0)
-                .max(Comparator.comparing(BankTransaction::getAmount))
-                .map(BankTransaction::getReference)
-                .orElse(null);
+    public List<TransactionRow> buildTransactionRows(List<BankTransaction> entities, String highlightReference) {
+        RowFormatter rowFormatter = rowFormatter(highlightReference);
+        List<TransactionRow> rows = new ArrayList<>(entities.size());
+        for (BankTransaction entity : entities) {
+            rows.add(rowFormatter.toRow(entity.getReference(), entity.getTimestamp(), entity.getAmount(),
+                    entity.getCurrency(), entity.getDescription()));
+        }
+        return rows;
     }
 
-    private TransactionRow toRow(BankTransaction entity, String highlightReference) {
-        boolean highlight = Objects.equals(entity.getReference(), highlightReference);
-        return new TransactionRow(
-                entity.getReference(),
-                DATE_TIME_FORMATTER.format(entity.getTimestamp()),
-                formatAmount(entity.getAmount(), entity.getCurrency()),
-                entity.getDescription() == null ? "" : entity.getDescription(),
-                highlight
-        );
+    /**
+     * Returns a formatter for the rows of one page. It reuses a single buffer for amounts, so it must
+     * stay on the thread rendering that page.
+     */
+    public RowFormatter rowFormatter(String highlightReference) {
+        return new RowFormatter(formatter, highlightReference);
     }
 
-    private String formatAmount(BigDecimal amount, String currency) {
-        return AMOUNT_FORMAT.format(amount) + " " + currency;
+    public static final class RowFormatter {
+
+        private final TransactionFormatter formatter;
+        private final String highlightReference;
+        private final StringBuilder amountBuffer = new StringBuilder(32);
+
+        private RowFormatter(TransactionFormatter formatter, String highlightReference) {
+            this.formatter = formatter;
+            this.highlightReference = highlightReference;
+        }
+
+        public TransactionRow toRow(String reference, Instant timestamp, BigDecimal amount, String currency,
+                                    String description) {
+            amountBuffer.setLength(0);
+            formatter.appendAmount(amountBuffer, amount, currency);
+            return new TransactionRow(
+                    reference,
+                    formatter.formatTimestamp(timestamp),
+                    amountBuffer.toString(),
+                    description == null ? "" : description,
+                    Objects.equals(reference, highlightReference)
+            );
+        }
     }
 
     @TemplateData
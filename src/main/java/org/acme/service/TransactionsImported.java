@@ -0,0 +1,8 @@
+package org.acme.service;
+
+/**
+ * Fired inside the import transaction for every persisted chunk. Observers interested in committed
+ * data only should listen with {@code during = TransactionPhase.AFTER_SUCCESS}.
+ */
+public record TransactionsImported(int count, LargestIncome largestIncome) {
+}
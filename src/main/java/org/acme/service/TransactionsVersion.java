@@ -0,0 +1,47 @@
+package org.acme.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.acme.persistence.ClusterNotifications;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version of the stored transactions, bumped after every committed import chunk and whenever another
+ * replica has imported. The version is prefixed with the start time of this instance so that tags handed
+ * out before a restart never match.
+ */
+@ApplicationScoped
+public class TransactionsVersion {
+
+    public record Snapshot(String instance, long value, Instant lastModified) {
+
+        public String tag() {
+            return instance + "-" + value;
+        }
+    }
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(
+        new Snapshot(instance, 1, Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+
+    public Snapshot current() {
+        return current.get();
+    }
+
+    public void bump() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        current.updateAndGet(snapshot -> new Snapshot(instance, snapshot.value() + 1, now));
+    }
+
+    void onImported(@Observes(during = TransactionPhase.AFTER_SUCCESS) TransactionsImported event) {
+        bump();
+    }
+
+    void onPeerImported(@Observes ClusterNotifications.PeerImported event) {
+        bump();
+    }
+}
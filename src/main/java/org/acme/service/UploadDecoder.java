@@ -0,0 +1,161 @@
+package org.acme.service;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.acme.config.TransactionsConfig;
+import org.acme.exception.TransactionValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses uploads sent with {@code Content-Encoding: gzip} or {@code zstd} while they are read,
+ * without buffering them. The decoded stream fails once it grows beyond the configured size, or beyond
+ * the configured ratio to the compressed bytes consumed so far, so a small malicious body cannot expand
+ * into an unbounded import.
+ */
+@ApplicationScoped
+public class UploadDecoder {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    // ratios of tiny inputs say nothing, a few hundred bytes of CSV may well compress 1000:1
+    private static final long RATIO_CHECK_THRESHOLD = 1024 * 1024;
+
+    public enum Encoding {
+        IDENTITY,
+        GZIP,
+        ZSTD
+    }
+
+    private final long maxDecompressedBytes;
+    private final int maxCompressionRatio;
+
+    @Inject
+    public UploadDecoder(TransactionsConfig config) {
+        this(config.importing().compression().maxDecompressedSize().asLongValue(),
+            config.importing().compression().maxRatio());
+    }
+
+    UploadDecoder(long maxDecompressedBytes, int maxCompressionRatio) {
+        this.maxDecompressedBytes = maxDecompressedBytes;
+        this.maxCompressionRatio = maxCompressionRatio;
+    }
+
+    public Encoding encoding(String contentEncoding) {
+        if (contentEncoding == null || contentEncoding.isBlank()) {
+            return Encoding.IDENTITY;
+        }
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "identity" -> Encoding.IDENTITY;
+            case "gzip", "x-gzip" -> Encoding.GZIP;
+            case "zstd" -> Encoding.ZSTD;
+            default -> throw TransactionValidationException.withMessage(
+                "Unsupported Content-Encoding '%s', expected gzip or zstd".formatted(contentEncoding));
+        };
+    }
+
+    public InputStream decode(InputStream body, Encoding encoding) {
+        if (encoding == Encoding.IDENTITY) {
+            return body;
+        }
+        CountingInputStream compressed = new CountingInputStream(body);
+        try {
+            InputStream decoder = encoding == Encoding.GZIP
+                ? new GZIPInputStream(compressed, GZIP_BUFFER_SIZE)
+                : new ZstdInputStream(compressed);
+            return new LimitedInputStream(decoder, compressed);
+        } catch (IOException | RuntimeException ex) {
+            throw TransactionValidationException.withMessage("Unable to read CSV payload: " + ex.getMessage());
+        }
+    }
+
+    private final class LimitedInputStream extends InputStream {
+
+        private final InputStream decoder;
+        private final CountingInputStream compressed;
+        private long decompressed;
+
+        private LimitedInputStream(InputStream decoder, CountingInputStream compressed) {
+            this.decoder = decoder;
+            this.compressed = compressed;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read;
+            try {
+                read = decoder.read(buffer, offset, length);
+            } catch (RuntimeException ex) {
+                // the zstd decoder reports corrupt frames as unchecked exceptions
+                throw new IOException("Corrupt compressed payload: " + ex.getMessage(), ex);
+            }
+            if (read > 0) {
+                decompressed += read;
+                checkLimits();
+            }
+            return read;
+        }
+
+        private void checkLimits() throws IOException {
+            if (decompressed > maxDecompressedBytes) {
+                throw new IOException("Decompressed payload exceeds %d bytes".formatted(maxDecompressedBytes));
+            }
+            if (decompressed > RATIO_CHECK_THRESHOLD
+                    && decompressed / Math.max(compressed.count, 1) > maxCompressionRatio) {
+                throw new IOException("Compression ratio exceeds %d:1".formatted(maxCompressionRatio));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            decoder.close();
+        }
+    }
+
+    private static final class CountingInputStream extends InputStream {
+
+        private final InputStream in;
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = in.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
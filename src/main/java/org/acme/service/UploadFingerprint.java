@@ -0,0 +1,17 @@
+package org.acme.service;
+
+/**
+ * Identifies an upload for idempotent imports: the hex SHA-256 of its body and the client's
+ * {@code Idempotency-Key}, which may be {@code null}. With {@code matchBody}
+ * ({@code transactions.import.fingerprint.enabled}) any earlier upload with the same SHA-256 counts as a
+ * repeat, otherwise only an earlier upload with the same key does.
+ */
+public record UploadFingerprint(String sha256, String idempotencyKey, boolean matchBody) {
+
+    /**
+     * The SHA-256 under which earlier uploads of the same body are found, or {@code null}.
+     */
+    public String bodyFingerprint() {
+        return matchBody ? sha256 : null;
+    }
+}
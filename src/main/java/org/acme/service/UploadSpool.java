@@ -0,0 +1,67 @@
+package org.acme.service;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.acme.config.TransactionsConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stores request bodies on disk, as sent, and computes their SHA-256 while copying them if asked to.
+ */
+@ApplicationScoped
+public class UploadSpool {
+
+    /**
+     * A stored body and the hex SHA-256 of its bytes, {@code null} when it was not computed.
+     */
+    public record SpooledUpload(Path file, String fingerprint) {
+    }
+
+    private final TransactionsConfig.Import.Async asyncConfig;
+
+    public UploadSpool(TransactionsConfig config) {
+        this.asyncConfig = config.importing().async();
+    }
+
+    public SpooledUpload spool(InputStream body, boolean fingerprint) {
+        try {
+            Path directory = asyncConfig.spoolDirectory().orElse(Path.of(System.getProperty("java.io.tmpdir")));
+            Files.createDirectories(directory);
+            Path spool = Files.createTempFile(directory, "import-", ".csv");
+            try {
+                if (!fingerprint) {
+                    Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+                    return new SpooledUpload(spool, null);
+                }
+                DigestInputStream digesting = new DigestInputStream(body, MessageDigest.getInstance("SHA-256"));
+                Files.copy(digesting, spool, StandardCopyOption.REPLACE_EXISTING);
+                return new SpooledUpload(spool, HexFormat.of().formatHex(digesting.getMessageDigest().digest()));
+            } catch (IOException | RuntimeException ex) {
+                delete(spool);
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to spool CSV upload", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    public void delete(Path spool) {
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException ex) {
+            Log.warnf(ex, "Unable to delete spooled upload %s", spool);
+        }
+    }
+}
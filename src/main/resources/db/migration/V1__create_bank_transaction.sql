@@ -0,0 +1,15 @@
+-- Schema as previously generated by Hibernate; existing databases are baselined at this version
+create sequence bank_transaction_seq start with 1 increment by 50;
+
+create table bank_transaction (
+    id bigint not null,
+    amount numeric(19, 2) not null,
+    currency varchar(3) not null,
+    description varchar(1024),
+    reference varchar(32) not null,
+    transaction_timestamp timestamp(6) with time zone not null,
+    constraint bank_transaction_pkey primary key (id),
+    constraint uk_bank_transaction_reference unique (reference)
+);
+
+create index idx_bank_transaction_timestamp_id on bank_transaction (transaction_timestamp desc, id desc);
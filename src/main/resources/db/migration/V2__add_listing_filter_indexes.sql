@@ -0,0 +1,10 @@
+-- Filtered listings keep the (timestamp desc, id desc) page order, so every index ends with it and
+-- a page is one range scan. The amount sign uses partial indexes, matched by the literal conditions.
+create index idx_bank_transaction_currency_timestamp_id
+    on bank_transaction (currency, transaction_timestamp desc, id desc);
+
+create index idx_bank_transaction_income_timestamp_id
+    on bank_transaction (transaction_timestamp desc, id desc) where amount > 0;
+
+create index idx_bank_transaction_expense_timestamp_id
+    on bank_transaction (transaction_timestamp desc, id desc) where amount < 0;
@@ -0,0 +1,21 @@
+-- Income and expense totals per UTC day and currency, maintained by every import in the same transaction
+-- as the raw rows, so summaries read a few rows per day instead of scanning bank_transaction.
+create table daily_currency_rollup (
+    day           date           not null,
+    currency      varchar(3)     not null,
+    income        numeric(21, 2) not null,
+    expense       numeric(21, 2) not null,
+    income_count  bigint         not null,
+    expense_count bigint         not null,
+    primary key (day, currency)
+);
+
+insert into daily_currency_rollup (day, currency, income, expense, income_count, expense_count)
+select (transaction_timestamp at time zone 'UTC')::date,
+       currency,
+       coalesce(sum(amount) filter (where amount > 0), 0),
+       coalesce(sum(amount) filter (where amount < 0), 0),
+       count(*) filter (where amount > 0),
+       count(*) filter (where amount < 0)
+from bank_transaction
+group by 1, 2;
@@ -0,0 +1,10 @@
+-- Uploads that were imported, by SHA-256 of the request body and by client Idempotency-Key, so a repeated
+-- upload is answered from here instead of being parsed and checked row by row again.
+create table processed_upload (
+    id              bigint generated always as identity primary key,
+    fingerprint     char(64)     unique,
+    idempotency_key varchar(255) unique,
+    rows_imported   bigint       not null,
+    rows_rejected   bigint       not null,
+    imported_at     timestamptz  not null default now()
+);
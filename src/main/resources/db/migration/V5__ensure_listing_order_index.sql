@@ -0,0 +1,3 @@
+-- V1 creates this index only for new databases; databases baselined at version 1 skip V1 and may lack it.
+create index if not exists idx_bank_transaction_timestamp_id
+    on bank_transaction (transaction_timestamp desc, id desc);
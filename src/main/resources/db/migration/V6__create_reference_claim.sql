@@ -0,0 +1,6 @@
+-- Claims of references that an open import transaction is checking and storing. A claim is inserted and
+-- deleted again by the same transaction, so no row ever commits; an import claiming the same reference
+-- meanwhile waits on the unique index until that transaction ends. Unlogged, as nothing here outlives it.
+create unlogged table reference_claim (
+    reference varchar(255) primary key
+);
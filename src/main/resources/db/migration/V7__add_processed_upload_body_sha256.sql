@@ -0,0 +1,3 @@
+-- SHA-256 of the body of every recorded upload, so an Idempotency-Key sent again with another body is told apart
+-- from a retry. Unlike fingerprint it is stored whether or not fingerprinting is enabled, and is not unique.
+alter table processed_upload add column body_sha256 char(64);
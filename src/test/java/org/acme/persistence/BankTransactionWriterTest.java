@@ -0,0 +1,149 @@
+package org.acme.persistence;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@QuarkusTest
+class BankTransactionWriterTest {
+
+    private static final int ROWS = 20_000;
+
+    @Inject
+    HibernateBatchWriter batchWriter;
+
+    @Inject
+    PostgresCopyWriter copyWriter;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+    }
+
+    @Test
+    void testCopyWriterRoundTripsAllColumns() {
+        BankTransaction income = transaction("COPY-1", "2024-01-15T10:30:00.123456Z", "12345678901234567.89", "Výplata");
+        BankTransaction expense = transaction("COPY-2", "1999-12-31T23:59:59Z", "-0.05", null);
+        BankTransaction round = transaction("COPY-3", "2024-02-29T00:00:00Z", "20000", "Rent");
+
+        QuarkusTransaction.requiringNew().run(() -> copyWriter.write(List.of(income, expense, round)));
+
+        assertStored(income);
+        assertStored(expense);
+        assertStored(round);
+    }
+
+    @Test
+    void testCopyAndBatchWritersRoundNanosecondsAlike() {
+        List<String> timestamps = List.of("2024-01-15T10:30:00.1234565Z", "2024-01-15T10:30:00.1234564Z",
+            "2024-01-31T23:59:59.9999996Z");
+        List<BankTransaction> batch = new ArrayList<>();
+        List<BankTransaction> copy = new ArrayList<>();
+        for (int i = 0; i < timestamps.size(); i++) {
+            batch.add(transaction("NANO-BATCH-" + i, timestamps.get(i), "1.00", null));
+            copy.add(transaction("NANO-COPY-" + i, timestamps.get(i), "1.00", null));
+        }
+
+        QuarkusTransaction.requiringNew().run(() -> batchWriter.write(batch));
+        QuarkusTransaction.requiringNew().run(() -> copyWriter.write(copy));
+
+        for (int i = 0; i < timestamps.size(); i++) {
+            Instant expected = BankTransaction.storedTimestamp(Instant.parse(timestamps.get(i)));
+            BankTransaction batched = BankTransaction.find("reference", "NANO-BATCH-" + i).firstResult();
+            BankTransaction copied = BankTransaction.find("reference", "NANO-COPY-" + i).firstResult();
+            assertEquals(expected, batched.getTimestamp());
+            assertEquals(expected, copied.getTimestamp());
+        }
+        assertEquals(Instant.parse("2024-02-01T00:00:00Z"),
+            BankTransaction.storedTimestamp(Instant.parse("2024-01-31T23:59:59.9999996Z")));
+    }
+
+    @Test
+    void testCopyAndBatchWritersShareTheIdSequence() {
+        QuarkusTransaction.requiringNew().run(() -> batchWriter.write(generate("MIX-A", 120)));
+        QuarkusTransaction.requiringNew().run(() -> copyWriter.write(generate("MIX-B", 120)));
+        QuarkusTransaction.requiringNew().run(() -> batchWriter.write(generate("MIX-C", 120)));
+
+        assertEquals(360, BankTransaction.count());
+    }
+
+    @Test
+    void testWritersReportConflictingReferences() {
+        QuarkusTransaction.requiringNew().run(() -> batchWriter.write(generate("CONFLICT", 3)));
+
+        List<String> batchConflicts = QuarkusTransaction.requiringNew().call(() ->
+            batchWriter.writeIgnoringConflicts(generate("CONFLICT", 5)));
+        List<String> copyConflicts = QuarkusTransaction.requiringNew().call(() ->
+            copyWriter.writeIgnoringConflicts(generate("CONFLICT", 7)));
+
+        assertEquals(List.of("CONFLICT-0", "CONFLICT-1", "CONFLICT-2"), batchConflicts);
+        assertEquals(List.of("CONFLICT-0", "CONFLICT-1", "CONFLICT-2", "CONFLICT-3", "CONFLICT-4"), copyConflicts);
+        assertEquals(7, BankTransaction.count());
+        assertStored(transaction("CONFLICT-6", "2024-01-01T00:00:06Z", "6.25", "Generated 6"));
+    }
+
+    @Test
+    void testCompareRowsPerSecondBetweenWriters() {
+        double batchRate = measure("BATCH", batchWriter);
+        double copyRate = measure("COPY", copyWriter);
+
+        Log.infof("Bulk insert of %d rows: batch %.0f rows/s, copy %.0f rows/s (%.1fx)",
+            ROWS, batchRate, copyRate, copyRate / batchRate);
+        assertEquals(2L * ROWS, BankTransaction.count());
+    }
+
+    private double measure(String prefix, BankTransactionWriter writer) {
+        List<BankTransaction> transactions = generate(prefix, ROWS);
+        long start = System.nanoTime();
+        QuarkusTransaction.requiringNew().run(() -> writer.write(transactions));
+        return ROWS / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private static void assertStored(BankTransaction expected) {
+        BankTransaction stored = BankTransaction.find("reference", expected.getReference()).firstResult();
+        if (expected.id != null) {
+            assertEquals(expected.id, stored.id);
+        }
+        assertEquals(expected.getTimestamp(), stored.getTimestamp());
+        assertEquals(0, expected.getAmount().compareTo(stored.getAmount()));
+        assertEquals(expected.getCurrency(), stored.getCurrency());
+        if (expected.getDescription() == null) {
+            assertNull(stored.getDescription());
+        } else {
+            assertEquals(expected.getDescription(), stored.getDescription());
+        }
+    }
+
+    private static List<BankTransaction> generate(String prefix, int rows) {
+        List<BankTransaction> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            transactions.add(transaction(prefix + "-" + i, Instant.parse("2024-01-01T00:00:00Z").plusSeconds(i).toString(),
+                (i % 2 == 0 ? "" : "-") + i + ".25", "Generated " + i));
+        }
+        return transactions;
+    }
+
+    private static BankTransaction transaction(String reference, String timestamp, String amount, String description) {
+        BankTransaction transaction = new BankTransaction();
+        transaction.setReference(reference);
+        transaction.setTimestamp(Instant.parse(timestamp));
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCurrency("CZK");
+        transaction.setDescription(description);
+        return transaction;
+    }
+}
@@ -0,0 +1,218 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.acme.service.LargestIncomeTracker;
+import org.acme.service.TransactionReadModel;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs one replica and plays the other one through a database session of its own, against the same
+ * PostgreSQL.
+ */
+@QuarkusTest
+@TestProfile(ClusterCoordinationTest.ClusterProfile.class)
+class ClusterCoordinationTest {
+
+    public static class ClusterProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "transactions.cluster.enabled", "true",
+                "transactions.import.chunk-size", "2",
+                "transactions.read-model.enabled", "true"
+            );
+        }
+    }
+
+    @Inject
+    TransactionReadModel readModel;
+
+    @Inject
+    LargestIncomeTracker largestIncomeTracker;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    String url;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    Optional<String> username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> password;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+        largestIncomeTracker.refresh();
+    }
+
+    @Test
+    void testImportOfOtherReplicaInvalidatesListing() throws SQLException, InterruptedException {
+        readModel.reload();
+        String etag = given().when().get("/transactions").then().statusCode(200).extract().header("ETag");
+
+        try (Connection peer = peerConnection()) {
+            peer.setAutoCommit(false);
+            insert(peer, "PEER-1", "999999.00");
+            try (PreparedStatement notify = peer.prepareStatement("select pg_notify('transactions_changed', 'peer')")) {
+                notify.execute();
+            }
+            peer.commit();
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        Response page;
+        do {
+            Thread.sleep(50);
+            page = given().header("If-None-Match", etag).when().get("/transactions");
+        } while (page.statusCode() == 304 && System.currentTimeMillis() < deadline);
+
+        page.then()
+            .statusCode(200)
+            .body(containsString("highlight-income\" data-reference=\"PEER-1\""));
+    }
+
+    @Test
+    void testImportOfOtherReplicaLoadsOnlyNotifiedRows() throws SQLException, InterruptedException {
+        readModel.reload();
+
+        try (Connection peer = peerConnection()) {
+            insert(peer, "PEER-UNANNOUNCED", "1.00");
+            peer.setAutoCommit(false);
+            long id = insert(peer, "PEER-ANNOUNCED", "2.00");
+            try (PreparedStatement notify = peer.prepareStatement("select pg_notify('transactions_changed', ?)")) {
+                notify.setString(1, "peer " + id + " " + id);
+                notify.execute();
+            }
+            peer.commit();
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        String page;
+        do {
+            Thread.sleep(50);
+            page = given().when().get("/transactions").then().statusCode(200).extract().asString();
+        } while (!page.contains("PEER-ANNOUNCED") && System.currentTimeMillis() < deadline);
+
+        assertTrue(page.contains("PEER-ANNOUNCED"));
+        // served from the model, which only loaded the announced range
+        assertFalse(page.contains("PEER-UNANNOUNCED"));
+    }
+
+    @Test
+    void testImportWaitsForOtherReplicaStoringSameReference() throws Exception {
+        CompletableFuture<Response> upload;
+        try (Connection peer = peerConnection()) {
+            peer.setAutoCommit(false);
+            claim(peer, "PEER-2");
+            insert(peer, "PEER-2", "10.00");
+
+            upload = CompletableFuture.supplyAsync(() -> given()
+                .contentType("text/csv")
+                .body("""
+                    reference,timestamp,amount,currency,description
+                    LOCAL-1,2024-01-15T10:30:00Z,5.00,EUR,Local
+                    PEER-2,2024-01-15T10:31:00Z,10.00,EUR,Also imported by the other replica
+                    """)
+                .when().post("/transactions"));
+            assertThrows(TimeoutException.class, () -> upload.get(1, TimeUnit.SECONDS));
+            peer.commit();
+        }
+
+        upload.get(30, TimeUnit.SECONDS).then()
+            .statusCode(400)
+            .body(containsString("References already exist: PEER-2"));
+        assertEquals(1, BankTransaction.count());
+    }
+
+    @Test
+    void testImportsOfDifferentReferencesDoNotWait() throws Exception {
+        try (Connection peer = peerConnection()) {
+            peer.setAutoCommit(false);
+            claim(peer, "PEER-3");
+            given()
+                .contentType("text/csv")
+                .body("reference,timestamp,amount,currency,description\n"
+                    + "OWN-1,2024-01-15T10:30:00Z,5.00,EUR,Own\n")
+                .when().post("/transactions")
+                .then()
+                .statusCode(201);
+            peer.rollback();
+        }
+        assertEquals(1, BankTransaction.count());
+    }
+
+    @Test
+    void testConcurrentMultiChunkImportsOfDifferentReferencesSucceed() throws Exception {
+        CompletableFuture<Response> first = CompletableFuture.supplyAsync(() -> upload("FIRST-", 40));
+        CompletableFuture<Response> second = CompletableFuture.supplyAsync(() -> upload("SECOND-", 40));
+
+        first.get(30, TimeUnit.SECONDS).then().statusCode(201);
+        second.get(30, TimeUnit.SECONDS).then().statusCode(201);
+        assertEquals(80, BankTransaction.count());
+    }
+
+    private static Response upload(String prefix, int rows) {
+        StringBuilder csv = new StringBuilder("reference,timestamp,amount,currency,description\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(prefix).append(i).append(",2024-01-15T10:30:00Z,5.00,EUR,Concurrent\n");
+        }
+        return given().contentType("text/csv").body(csv.toString()).when().post("/transactions");
+    }
+
+    private Connection peerConnection() throws SQLException {
+        return DriverManager.getConnection(url, username.orElse(null), password.orElse(null));
+    }
+
+    private static void claim(Connection connection, String reference) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into reference_claim (reference) values (?)");
+             PreparedStatement delete = connection.prepareStatement(
+                "delete from reference_claim where reference = ?")) {
+            insert.setString(1, reference);
+            insert.executeUpdate();
+            delete.setString(1, reference);
+            delete.executeUpdate();
+        }
+    }
+
+    private static long insert(Connection connection, String reference, String amount) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                insert into bank_transaction (id, amount, currency, description, reference, transaction_timestamp)
+                values (nextval('bank_transaction_seq'), ?::numeric, 'EUR', 'Imported elsewhere', ?, now())
+                returning id""")) {
+            statement.setString(1, amount);
+            statement.setString(2, reference);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+}
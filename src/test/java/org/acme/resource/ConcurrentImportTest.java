@@ -0,0 +1,115 @@
+package org.acme.resource;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.acme.persistence.ReferenceLocks;
+import org.acme.service.LargestIncomeTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Concurrent uploads of the same references to a single replica, without cluster coordination.
+ */
+@QuarkusTest
+@TestProfile(ConcurrentImportTest.SingleReplicaProfile.class)
+class ConcurrentImportTest {
+
+    public static class SingleReplicaProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("transactions.import.chunk-size", "2");
+        }
+    }
+
+    @Inject
+    ReferenceLocks referenceLocks;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    LargestIncomeTracker largestIncomeTracker;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+        entityManager.createNativeQuery("delete from daily_currency_rollup").executeUpdate();
+        largestIncomeTracker.refresh();
+    }
+
+    @Test
+    void testUploadWaitsForImportStoringSameReference() {
+        CompletableFuture<Response> upload = QuarkusTransaction.requiringNew().call(() -> {
+            referenceLocks.lock(List.of("SAME-1"));
+            transaction("SAME-1").persist();
+
+            CompletableFuture<Response> waiting = CompletableFuture.supplyAsync(() -> given()
+                .contentType("text/csv")
+                .body("""
+                    reference,timestamp,amount,currency,description
+                    OTHER-1,2024-01-15T10:30:00Z,5.00,EUR,Other
+                    SAME-1,2024-01-15T10:31:00Z,10.00,EUR,Stored by the running import
+                    """)
+                .when().post("/transactions"));
+            assertThrows(TimeoutException.class, () -> waiting.get(1, TimeUnit.SECONDS));
+            return waiting;
+        });
+
+        upload.join().then()
+            .statusCode(400)
+            .body(containsString("References already exist: SAME-1"));
+        assertEquals(1, BankTransaction.count());
+    }
+
+    @Test
+    void testConcurrentUploadsOfSameReferencesStoreThemOnce() {
+        CompletableFuture<Response> first = CompletableFuture.supplyAsync(() -> upload(40));
+        CompletableFuture<Response> second = CompletableFuture.supplyAsync(() -> upload(40));
+
+        List<Integer> statuses = Stream.of(first.join(), second.join())
+            .map(Response::statusCode)
+            .sorted()
+            .toList();
+        assertEquals(List.of(201, 400), statuses);
+        assertEquals(40, BankTransaction.count());
+    }
+
+    private static Response upload(int rows) {
+        StringBuilder csv = new StringBuilder("reference,timestamp,amount,currency,description\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("SHARED-").append(i).append(",2024-01-15T10:30:00Z,5.00,EUR,Concurrent\n");
+        }
+        return given().contentType("text/csv").body(csv.toString()).when().post("/transactions");
+    }
+
+    private static BankTransaction transaction(String reference) {
+        BankTransaction transaction = new BankTransaction();
+        transaction.setReference(reference);
+        transaction.setTimestamp(Instant.parse("2024-01-15T10:00:00Z"));
+        transaction.setAmount(new BigDecimal("10.00"));
+        transaction.setCurrency("EUR");
+        return transaction;
+    }
+}
@@ -0,0 +1,115 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.acme.persistence.ReferenceBloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(DuplicateDetectionTest.OnConflictProfile.class)
+class DuplicateDetectionTest {
+
+    public static class OnConflictProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "transactions.duplicates.strategy", "on-conflict",
+                "transactions.duplicates.lookup-batch-size", "2",
+                "transactions.duplicates.bloom-filter.enabled", "true",
+                "transactions.duplicates.bloom-filter.expected-references", "100000"
+            );
+        }
+    }
+
+    @Inject
+    ReferenceBloomFilter bloomFilter;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+    }
+
+    @Test
+    void testConflictingReferencesAreReportedInFileOrder() {
+        String firstCsv = """
+            reference,timestamp,amount,currency,description
+            DUP-1,2024-01-15T10:30:00Z,100.50,EUR,First
+            DUP-2,2024-01-15T10:31:00Z,100.50,EUR,Second
+            """;
+
+        given()
+            .contentType("text/csv")
+            .body(firstCsv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        String overlappingCsv = """
+            reference,timestamp,amount,currency,description
+            NEW-1,2024-01-16T11:00:00Z,200.00,EUR,New
+            DUP-2,2024-01-16T11:00:00Z,200.00,EUR,Again
+            DUP-1,2024-01-16T11:00:00Z,200.00,EUR,Again
+            """;
+
+        given()
+            .contentType("text/csv")
+            .body(overlappingCsv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body(containsString("References already exist: DUP-2, DUP-1"));
+
+        assertEquals(2, BankTransaction.count());
+    }
+
+    @Test
+    void testDuplicateWithinFileKeepsPayloadMessage() {
+        String csv = """
+            reference,timestamp,amount,currency,description
+            SAME,2024-01-15T10:30:00Z,100.50,EUR,First
+            SAME,2024-01-15T10:31:00Z,100.50,EUR,Second
+            """;
+
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body(containsString("Duplicate reference 'SAME' in uploaded file"));
+    }
+
+    @Test
+    void testBloomFilterLearnsImportedReferences() {
+        assertTrue(bloomFilter.isActive());
+        assertFalse(bloomFilter.mightContain("BLOOM-1"));
+
+        String csv = """
+            reference,timestamp,amount,currency,description
+            BLOOM-1,2024-01-15T10:30:00Z,100.50,EUR,First
+            """;
+
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        assertTrue(bloomFilter.mightContain("BLOOM-1"));
+    }
+}
@@ -0,0 +1,179 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(IdempotentUploadTest.FingerprintProfile.class)
+class IdempotentUploadTest {
+
+    public static class FingerprintProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("transactions.import.fingerprint.enabled", "true");
+        }
+    }
+
+    private static final String CSV = """
+        reference,timestamp,amount,currency,description
+        IDEM-1,2024-01-15T10:30:00Z,100.50,EUR,First
+        IDEM-2,2024-01-15T10:31:00Z,-20.00,EUR,Second
+        """;
+
+    @Inject
+    EntityManager entityManager;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+        entityManager.createNativeQuery("delete from daily_currency_rollup").executeUpdate();
+        entityManager.createNativeQuery("delete from processed_upload").executeUpdate();
+    }
+
+    @Test
+    void testRepeatedUploadReturnsEarlierImport() {
+        given()
+            .contentType("text/csv")
+            .body(CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201)
+            .header("Idempotent-Replayed", nullValue());
+
+        given()
+            .contentType("text/csv")
+            .body(CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(200)
+            .header("Idempotent-Replayed", "true")
+            .body("rowsImported", equalTo(2))
+            .body("rowsRejected", equalTo(0))
+            .body("fingerprint", hasLength(64));
+
+        assertEquals(2, BankTransaction.count());
+    }
+
+    @Test
+    void testRepeatedIdempotencyKeyIsNotImportedAgain() {
+        given()
+            .contentType("text/csv")
+            .header("Idempotency-Key", "statement-1")
+            .body(CSV)
+            .when().post("/transactions?mode=partial")
+            .then()
+            .statusCode(201)
+            .body("rowsImported", equalTo(2));
+
+        given()
+            .contentType("text/csv")
+            .header("Idempotency-Key", "statement-1")
+            .body(CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(200)
+            .header("Idempotent-Replayed", "true")
+            .body("idempotencyKey", equalTo("statement-1"))
+            .body("rowsImported", equalTo(2));
+
+        assertEquals(2, BankTransaction.count());
+    }
+
+    @Test
+    void testIdempotencyKeyReusedForAnotherBodyIsRejected() {
+        given()
+            .contentType("text/csv")
+            .header("Idempotency-Key", "statement-2")
+            .body(CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        given()
+            .contentType("text/csv")
+            .header("Idempotency-Key", "statement-2")
+            .body(CSV.replace("IDEM-", "OTHER-"))
+            .when().post("/transactions")
+            .then()
+            .statusCode(422)
+            .header("Idempotent-Replayed", nullValue())
+            .body(containsString("Idempotency-Key 'statement-2' was already used for a different upload"));
+
+        given()
+            .contentType("text/csv")
+            .header("Idempotency-Key", "statement-2")
+            .header("Prefer", "respond-async")
+            .body(CSV.replace("IDEM-", "OTHER-"))
+            .when().post("/transactions")
+            .then()
+            .statusCode(422);
+
+        assertEquals(2, BankTransaction.count());
+    }
+
+    @Test
+    void testRepeatedBackgroundUploadIsNotQueued() {
+        given()
+            .contentType("text/csv")
+            .body(CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        given()
+            .contentType("text/csv")
+            .header("Prefer", "respond-async")
+            .body(CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(200)
+            .header("Idempotent-Replayed", "true")
+            .body("rowsImported", equalTo(2));
+    }
+
+    @Test
+    void testFailedImportIsNotRecorded() {
+        String invalid = CSV + "IDEM-3,not-a-timestamp,1.00,EUR,Broken\n";
+        given()
+            .contentType("text/csv")
+            .body(invalid)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400);
+
+        given()
+            .contentType("text/csv")
+            .body(invalid)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400);
+
+        assertEquals(0, BankTransaction.count());
+    }
+
+    @Test
+    void testOverlongIdempotencyKeyIsRejected() {
+        given()
+            .contentType("text/csv")
+            .header("Idempotency-Key", "k".repeat(256))
+            .body(CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body(containsString("Idempotency-Key must be between 1 and 255 characters"));
+    }
+}
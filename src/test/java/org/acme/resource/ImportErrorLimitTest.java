@@ -0,0 +1,119 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(ImportErrorLimitTest.ErrorLimitProfile.class)
+class ImportErrorLimitTest {
+
+    public static class ErrorLimitProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "transactions.import.max-errors", "5",
+                "transactions.import.chunk-size", "4"
+            );
+        }
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+        entityManager.createNativeQuery("delete from daily_currency_rollup").executeUpdate();
+    }
+
+    @Test
+    void testStrictImportStopsAfterMaxErrors() {
+        given()
+            .contentType("text/csv")
+            .body(withInvalidLines(TransactionResourceTest.generateCsv(10), 50))
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body("details", hasSize(6))
+            .body("details[0]", is("Line 12: Invalid timestamp 'yesterday'"))
+            .body("details[5]", is("Validation stopped after 5 invalid lines"));
+
+        assertEquals(0, BankTransaction.count());
+    }
+
+    @Test
+    void testStrictImportWithExactlyMaxErrorsReportsAllOfThem() {
+        given()
+            .contentType("text/csv")
+            .body(withInvalidLines(TransactionResourceTest.generateCsv(10), 5))
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body("details", hasSize(5))
+            .body("details", not(hasItem(startsWith("Validation stopped"))));
+    }
+
+    @Test
+    void testStrictImportReportsInvalidLinesOfLaterChunks() {
+        String csv = TransactionResourceTest.generateCsv(10)
+            .replace("TX000002,2024-01-01T00:02:00Z", "TX000002,yesterday")
+            .replace("TX000007,2024-01-01T00:07:00Z", "TX000007,today")
+            + "BAD-LAST,2024-03-01T10:00:00Z,lots,EUR,\n";
+
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body("details", contains(
+                "Line 3: Invalid timestamp 'yesterday'",
+                "Line 8: Invalid timestamp 'today'",
+                "Line 12: Invalid amount 'lots'"));
+
+        assertEquals(0, BankTransaction.count());
+    }
+
+    @Test
+    void testPartialImportPastMaxErrorsStoresValidRows() {
+        String csv = withInvalidLines(TransactionResourceTest.generateCsv(10), 50)
+            + "TX-LAST,2024-03-01T10:00:00Z,1,EUR,After the errors\n";
+
+        String rejectsLocation = given()
+            .contentType("text/csv")
+            .queryParam("mode", "partial")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201)
+            .body("rowsImported", is(11))
+            .body("rowsRejected", is(50))
+            .extract().path("rejectsLocation");
+
+        assertEquals(11, BankTransaction.count());
+        String rejects = given().when().get(rejectsLocation).then().statusCode(200).extract().asString();
+        assertEquals(51, rejects.lines().count());
+    }
+
+    private static String withInvalidLines(String csv, int count) {
+        StringBuilder mangled = new StringBuilder(csv);
+        for (int i = 0; i < count; i++) {
+            mangled.append("BAD").append(i).append(",yesterday,1,EUR,\n");
+        }
+        return mangled.toString();
+    }
+}
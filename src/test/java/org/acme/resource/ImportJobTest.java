@@ -0,0 +1,153 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.response.Response;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(ImportJobTest.SingleWorkerProfile.class)
+class ImportJobTest {
+
+    public static class SingleWorkerProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "transactions.import.async.max-concurrent", "1",
+                "transactions.import.async.queue-capacity", "0"
+            );
+        }
+    }
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+    }
+
+    @Test
+    void testAsyncImportReportsProgressUntilSucceeded() {
+        String location = submit(TransactionResourceTest.generateCsv(2500))
+            .then()
+            .statusCode(202)
+            .body("phase", anyOf(is("QUEUED"), is("RUNNING")))
+            .extract().header("Location");
+
+        awaitFinished(location)
+            .then()
+            .body("phase", is("SUCCEEDED"))
+            .body("rowsProcessed", is(2500))
+            .body("errors", empty())
+            .body("finishedAt", notNullValue());
+
+        assertEquals(2500L, BankTransaction.count());
+    }
+
+    @Test
+    void testAsyncImportReportsValidationErrors() {
+        String csv = """
+            reference,timestamp,amount,currency,description
+            TX001,2024-01-15T10:30:00Z,not-a-number,EUR,Payment
+            """;
+
+        String location = submit(csv).then().statusCode(202).extract().header("Location");
+
+        awaitFinished(location)
+            .then()
+            .body("phase", is("FAILED"))
+            .body("rowsProcessed", is(0))
+            .body("errors", contains("Line 2: Invalid amount 'not-a-number'"));
+
+        assertEquals(0L, BankTransaction.count());
+    }
+
+    @Test
+    void testCompressedAsyncImportIsDecodedWhenTheJobRuns() throws IOException {
+        byte[] gzip = TransactionResourceTest.gzip(
+            TransactionResourceTest.generateCsv(1500).getBytes(StandardCharsets.UTF_8));
+        String location = submit(gzip, "gzip").then().statusCode(202).extract().header("Location");
+        awaitFinished(location).then().body("phase", is("SUCCEEDED")).body("rowsProcessed", is(1500));
+
+        byte[] corrupt = Arrays.copyOf(gzip, gzip.length / 2);
+        String failed = submit(corrupt, "gzip").then().statusCode(202).extract().header("Location");
+        awaitFinished(failed)
+            .then()
+            .body("phase", is("FAILED"))
+            .body("errors[0]", startsWith("Unable to read CSV payload"));
+
+        assertEquals(1500L, BankTransaction.count());
+    }
+
+    @Test
+    void testUploadsAreRejectedWhileTheQueueIsFull() {
+        String location = submit(TransactionResourceTest.generateCsv(100_000))
+            .then()
+            .statusCode(202)
+            .extract().header("Location");
+
+        submit(TransactionResourceTest.generateCsv(1))
+            .then()
+            .statusCode(429)
+            .body("message", is("Too many imports in progress, try again later"));
+
+        awaitFinished(location).then().body("phase", is("SUCCEEDED"));
+        submit(TransactionResourceTest.generateCsv(1)).then().statusCode(202);
+    }
+
+    @Test
+    void testUnknownImportJob() {
+        given()
+            .when().get("/transactions/imports/unknown")
+            .then()
+            .statusCode(404)
+            .body("message", is("Import job not found"));
+    }
+
+    private static Response submit(String csv) {
+        return given()
+            .contentType("text/csv")
+            .header("Prefer", "respond-async")
+            .body(csv)
+            .when().post("/transactions");
+    }
+
+    private static Response submit(byte[] body, String contentEncoding) {
+        return given()
+            .contentType("text/csv")
+            .header("Prefer", "respond-async")
+            .header("Content-Encoding", contentEncoding)
+            .body(body)
+            .when().post("/transactions");
+    }
+
+    private static Response awaitFinished(String location) {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (true) {
+            Response response = given().when().get(location);
+            response.then().statusCode(200);
+            String phase = response.path("phase");
+            if (phase.equals("SUCCEEDED") || phase.equals("FAILED") || System.currentTimeMillis() > deadline) {
+                return response;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.acme.resource;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.acme.service.LargestIncomeTracker;
+import org.acme.service.TransactionReadModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ReadModelTest.ReadModelProfile.class)
+class ReadModelTest {
+
+    public static class ReadModelProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "transactions.read-model.enabled", "true",
+                "transactions.import.chunk-size", "2",
+                "transactions.listing.cache.enabled", "false"
+            );
+        }
+    }
+
+    @Inject
+    TransactionReadModel readModel;
+
+    @Inject
+    LargestIncomeTracker largestIncomeTracker;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+        largestIncomeTracker.refresh();
+    }
+
+    @Test
+    void testListingIsServedFromImportedSegments() {
+        readModel.reload();
+        String first = """
+            reference,timestamp,amount,currency,description
+            RM1,2024-01-10T10:00:00Z,100,EUR,January income
+            RM2,2024-01-20T10:00:00Z,-40.125,EUR,
+            RM3,2024-01-25T10:00:00Z,-15,CZK,January koruna
+            """;
+        String second = """
+            reference,timestamp,amount,currency,description
+            RM4,2024-01-20T10:00:00Z,-5,EUR,Same second as RM2
+            RM5,2024-02-01T00:00:00Z,250,USD,February income
+            """;
+        given().contentType("text/csv").body(first).when().post("/transactions").then().statusCode(201);
+        given().contentType("text/csv").body(second).when().post("/transactions").then().statusCode(201);
+        assertTrue(readModel.isReady());
+
+        // written behind the model's back, so only visible after a reload
+        QuarkusTransaction.requiringNew().run(() -> {
+            BankTransaction direct = new BankTransaction();
+            direct.setReference("DIRECT");
+            direct.setTimestamp(Instant.parse("2024-03-01T00:00:00Z"));
+            direct.setAmount(new BigDecimal("1000.00"));
+            direct.setCurrency("EUR");
+            direct.persist();
+        });
+
+        String firstPage = given()
+            .queryParam("size", 2)
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(stringContainsInOrder("RM5", "RM3"))
+            .body(not(containsString("DIRECT")))
+            .body(not(containsString("RM4")))
+            .body(containsString("highlight-income\" data-reference=\"RM5\""))
+            .extract().asString();
+
+        Matcher next = Pattern.compile("href=\"\\?size=2&cursor=([^&\"]+)\"").matcher(firstPage);
+        assertTrue(next.find(), firstPage);
+        given()
+            .queryParam("size", 2)
+            .queryParam("cursor", next.group(1))
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(stringContainsInOrder("RM4", "RM2"))
+            .body(containsString("-40.13"))
+            .body(not(containsString("RM1")))
+            .body(containsString("class=\"next-page\""));
+
+        given()
+            .queryParam("from", "2024-01-15")
+            .queryParam("to", "2024-02-01")
+            .queryParam("currency", "EUR")
+            .queryParam("type", "expense")
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(stringContainsInOrder("RM4", "RM2"))
+            .body(not(containsString("RM1")))
+            .body(not(containsString("RM3")))
+            .body(not(containsString("RM5")));
+
+        given()
+            .queryParam("currency", "GBP")
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("No transactions match the filter."));
+
+        readModel.reload();
+        given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("highlight-income\" data-reference=\"DIRECT\""));
+    }
+
+    @Test
+    void testRolledBackImportIsNotAdded() {
+        readModel.reload();
+        String csv = """
+            reference,timestamp,amount,currency,description
+            RB1,2024-01-10T10:00:00Z,900,EUR,Committed chunk until the duplicate
+            RB2,2024-01-11T10:00:00Z,-10,EUR,Second row
+            RB1,2024-01-12T10:00:00Z,5,EUR,Duplicate
+            """;
+        given().contentType("text/csv").body(csv).when().post("/transactions").then().statusCode(400);
+
+        given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("No transactions uploaded yet."));
+    }
+}
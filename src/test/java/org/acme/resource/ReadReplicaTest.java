@@ -0,0 +1,117 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.acme.service.ReadRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plays the replica with a schema of its own in the same database, which only holds what the test puts
+ * there, so every response shows which datasource it was read from.
+ */
+@QuarkusTest
+@TestProfile(ReadReplicaTest.ReadReplicaProfile.class)
+class ReadReplicaTest {
+
+    public static class ReadReplicaProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "quarkus.datasource.read.active", "true",
+                "quarkus.datasource.read.jdbc.url", "${quarkus.datasource.jdbc.url}",
+                "quarkus.datasource.read.username", "${quarkus.datasource.username}",
+                "quarkus.datasource.read.password", "${quarkus.datasource.password}",
+                "quarkus.datasource.read.jdbc.additional-jdbc-properties.currentSchema", "replica",
+                "transactions.database.read-your-writes-window", "1s",
+                "transactions.listing.cache.enabled", "false"
+            );
+        }
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    ReadRouter readRouter;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+        entityManager.createNativeQuery("create schema if not exists replica").executeUpdate();
+        entityManager.createNativeQuery("drop table if exists replica.bank_transaction").executeUpdate();
+        entityManager.createNativeQuery("create table replica.bank_transaction (like public.bank_transaction)")
+            .executeUpdate();
+        entityManager.createNativeQuery("""
+            insert into replica.bank_transaction (id, amount, currency, description, reference, transaction_timestamp)
+            values (1, 42.00, 'EUR', 'Only on the replica', 'REPLICA-1', '2024-01-01T00:00:00Z')""")
+            .executeUpdate();
+    }
+
+    @Test
+    void testReadsGoToReplica() throws InterruptedException {
+        awaitReplicaReads();
+
+        given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("REPLICA-1"));
+
+        given()
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(200)
+            .body(containsString("\"reference\":\"REPLICA-1\""));
+    }
+
+    @Test
+    void testUploadingClientReadsItsOwnWrites() throws InterruptedException {
+        awaitReplicaReads();
+        given()
+            .contentType("text/csv")
+            .body("""
+                reference,timestamp,amount,currency,description
+                PRIMARY-1,2024-01-15T10:30:00Z,100.50,EUR,Uploaded
+                """)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("PRIMARY-1"))
+            .body(not(containsString("REPLICA-1")));
+
+        awaitReplicaReads();
+        given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("REPLICA-1"))
+            .body(not(containsString("PRIMARY-1")));
+    }
+
+    private void awaitReplicaReads() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!readRouter.readsFromReplica() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(readRouter.readsFromReplica());
+    }
+}
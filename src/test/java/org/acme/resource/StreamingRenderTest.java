@@ -0,0 +1,88 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.acme.service.LargestIncomeTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+@TestProfile(StreamingRenderTest.StreamingProfile.class)
+class StreamingRenderTest {
+
+    public static class StreamingProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "transactions.listing.render-mode", "streaming",
+                "transactions.listing.stream-batch-size", "2"
+            );
+        }
+    }
+
+    @Inject
+    LargestIncomeTracker largestIncomeTracker;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+        largestIncomeTracker.refresh();
+    }
+
+    @Test
+    void testStreamedPageShowsEmptyState() {
+        given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .contentType(containsString("text/html"))
+            .header("Transfer-Encoding", "chunked")
+            .body(containsString("No transactions uploaded yet."))
+            .body(endsWith("</html>\n"));
+    }
+
+    @Test
+    void testStreamedPageRendersAllBatchesWithHighlightAndCursor() {
+        String csv = """
+            reference,timestamp,amount,currency,description
+            TX001,2024-01-15T10:30:00Z,500.00,EUR,Large income
+            TX002,2024-01-16T14:20:00Z,100.00,EUR,Small income
+            TX003,2024-01-17T09:15:00Z,-50.00,EUR,Expense
+            TX004,2024-01-18T09:15:00Z,-20.00,EUR,Coffee
+            TX005,2024-01-19T09:15:00Z,-10.00,EUR,Bus
+            """;
+
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        given()
+            .queryParam("size", 4)
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(stringContainsInOrder("TX005", "TX004", "TX003", "TX002", "</tbody>", "Older transactions", "</html>"))
+            .body(not(containsString("data-reference=\"TX001\"")))
+            .body(containsString("cursor="))
+            .body(not(containsString("No transactions uploaded yet.")));
+
+        given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("highlight-income\" data-reference=\"TX001\""));
+    }
+}
@@ -0,0 +1,159 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.path.json.JsonPath;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.acme.persistence.DatabaseLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(TransactionExportTest.SmallFetchProfile.class)
+class TransactionExportTest {
+
+    public static class SmallFetchProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "transactions.export.fetch-size", "2",
+                "transactions.database.max-concurrent-work", "1",
+                "transactions.database.acquire-timeout", "200ms"
+            );
+        }
+    }
+
+    private static final String CSV = """
+        reference,timestamp,amount,currency,description
+        EXP-3,2024-01-17T08:00:00Z,-12.5,EUR,"Coffee, large"
+        EXP-1,2024-01-15T08:00:00Z,1000,CZK,Salary
+        EXP-4,2024-01-18T08:00:00Z,1E+3,EUR,
+        EXP-2,2024-01-16T08:00:00Z,99.99,USD,"Quoted ""book"" twice"
+        EXP-5,2024-01-19T08:00:00Z,0.01,EUR,Interest
+        """;
+
+    @Inject
+    DatabaseLimiter databaseLimiter;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+    }
+
+    @Test
+    void testExportsNdjsonOldestFirst() {
+        given().contentType("text/csv").body(CSV).when().post("/transactions").then().statusCode(201);
+
+        String body = given()
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(200)
+            .contentType(startsWith("application/x-ndjson"))
+            .extract().asString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(5, lines.size());
+        assertEquals(List.of("EXP-1", "EXP-2", "EXP-3", "EXP-4", "EXP-5"),
+            lines.stream().map(line -> JsonPath.from(line).getString("reference")).toList());
+        assertEquals("{\"reference\":\"EXP-2\",\"timestamp\":\"2024-01-16T08:00:00Z\",\"amount\":99.99,"
+            + "\"currency\":\"USD\",\"description\":\"Quoted \\\"book\\\" twice\"}", lines.get(1));
+        assertEquals("{\"reference\":\"EXP-4\",\"timestamp\":\"2024-01-18T08:00:00Z\",\"amount\":1000.00,"
+            + "\"currency\":\"EUR\",\"description\":null}", lines.get(3));
+    }
+
+    @Test
+    void testExportsFilteredJsonArray() {
+        given().contentType("text/csv").body(CSV).when().post("/transactions").then().statusCode(201);
+
+        given()
+            .queryParam("from", "2024-01-16T08:00:00Z")
+            .queryParam("to", "2024-01-19T08:00:00Z")
+            .queryParam("currency", "eur")
+            .accept("application/json")
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(200)
+            .contentType(startsWith("application/json"))
+            .body("reference", contains("EXP-3", "EXP-4"))
+            .body("[0].description", is("Coffee, large"));
+
+        given()
+            .queryParam("format", "json")
+            .queryParam("type", "expense")
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(200)
+            .body("reference", contains("EXP-3"));
+
+        given()
+            .queryParam("format", "json")
+            .queryParam("currency", "GBP")
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(200)
+            .body(is("[]"));
+    }
+
+    @Test
+    void testExportHoldsDatabasePermitWhileStreaming() {
+        given().contentType("text/csv").body(CSV).when().post("/transactions").then().statusCode(201);
+
+        databaseLimiter.run(() -> given()
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(503)
+            .body("message", is("Database is busy, try again later")));
+
+        // each export gives its permit back once the last row is written
+        for (int i = 0; i < 3; i++) {
+            given().when().get("/transactions/export").then().statusCode(200);
+        }
+    }
+
+    @Test
+    void testExportGivesPermitBackWhenBodyIsNeverWritten() {
+        given().contentType("text/csv").body(CSV).when().post("/transactions").then().statusCode(201);
+
+        // HEAD responses carry no body, so the streaming output never runs
+        for (int i = 0; i < 3; i++) {
+            given().when().head("/transactions/export").then().statusCode(200);
+        }
+        given().when().get("/transactions/export").then().statusCode(200);
+    }
+
+    @Test
+    void testRejectsInvalidParameters() {
+        given()
+            .queryParam("from", "yesterday")
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(400)
+            .body("details[0]", containsString("Invalid 'from' timestamp"));
+
+        given()
+            .queryParam("from", "2024-01-02T00:00:00Z")
+            .queryParam("to", "2024-01-01T00:00:00Z")
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(400)
+            .body("details[0]", is("Parameter 'from' must be before 'to'"));
+
+        given()
+            .queryParam("format", "csv")
+            .when().get("/transactions/export")
+            .then()
+            .statusCode(400)
+            .body("details[0]", containsString("Unsupported export format"));
+    }
+}
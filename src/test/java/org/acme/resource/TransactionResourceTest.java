@@ -1,22 +1,69 @@
 package org.acme.resource;
 
+import io.airlift.compress.zstd.ZstdOutputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.acme.data.BankTransaction;
+import org.acme.service.LargestIncomeTracker;
+import org.acme.service.TransactionPage;
+import org.acme.service.TransactionService;
+import org.acme.service.TransactionsVersion;
+import org.acme.service.TransactionViewService.TransactionRow;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.hamcrest.Matchers.*;
 
 @QuarkusTest
 class TransactionResourceTest {
 
+    @Inject
+    LargestIncomeTracker largestIncomeTracker;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    TransactionsVersion transactionsVersion;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    EntityManager entityManager;
+
     @BeforeEach
     @Transactional
     void cleanup() {
         BankTransaction.deleteAll();
+        entityManager.createNativeQuery("delete from daily_currency_rollup").executeUpdate();
+        largestIncomeTracker.refresh();
+        transactionsVersion.bump();
     }
 
     @Test
@@ -197,4 +244,693 @@ class TransactionResourceTest {
             .body(containsString("TX001"))
             .body(containsString("highlight"));
     }
+
+    @Test
+    void testEqualLargestIncomesAreRankedByIdLikeTheDatabase() {
+        String csv = """
+            reference,timestamp,amount,currency,description
+            TIE-1,2024-01-15T10:30:00Z,500.00,EUR,Stored first
+            TIE-2,2024-01-15T10:30:00Z,500.00,EUR,Stored second
+            """;
+        given().contentType("text/csv").body(csv).when().post("/transactions").then().statusCode(201);
+
+        assertEquals("TIE-2", transactionService.findLargestIncomeReference());
+        largestIncomeTracker.refresh();
+        assertEquals("TIE-2", transactionService.findLargestIncomeReference());
+    }
+
+    @Test
+    void testPostCsvSpanningSeveralChunksImportsEveryRow() {
+        given()
+            .contentType("text/csv")
+            .body(generateCsv(2500))
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        assertEquals(2500, BankTransaction.count());
+    }
+
+    @Test
+    void testInvalidRowInLaterChunkRollsBackWholeFile() {
+        String csv = generateCsv(1500) + "TX-BAD,2024-01-15T10:30:00Z,not-a-number,EUR,Bad amount\n";
+
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body(containsString("Line 1502: Invalid amount 'not-a-number'"));
+
+        assertEquals(0, BankTransaction.count());
+    }
+
+    @Test
+    void testDuplicateReferenceAcrossChunksIsRejected() {
+        String csv = generateCsv(1200) + "TX000001,2024-02-01T10:30:00Z,10.00,EUR,Repeated\n";
+
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body(containsString("Duplicate reference 'TX000001' in uploaded file"));
+
+        assertEquals(0, BankTransaction.count());
+    }
+
+    @Test
+    void testPartialImportRejectsDuplicateReferenceFromEarlierChunk() {
+        String csv = generateCsv(2100) + "TX000002,2024-02-01T10:30:00Z,10.00,EUR,Repeated\n";
+
+        given()
+            .contentType("text/csv")
+            .queryParam("mode", "partial")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201)
+            .body("rowsImported", is(2100))
+            .body("errors", contains("Line 2102: Duplicate reference 'TX000002' in uploaded file"));
+
+        assertEquals(2100, BankTransaction.count());
+    }
+
+    private static final String PARTIAL_CSV = """
+        reference,timestamp,amount,currency,description
+        P1,2024-01-10T10:00:00Z,10,EUR,Valid
+        P2,2024-01-10T11:00:00Z,abc,EUR,"Bad, amount"
+        P1,2024-01-11T10:00:00Z,5,EUR,Repeated
+        P0,2024-01-12T10:00:00Z,5,EUR,Already stored
+        P3,2024-01-13T10:00:00Z,-3,CZK,
+        """;
+
+    @Test
+    void testPartialImportStoresValidRows() {
+        importStoredReference();
+
+        given()
+            .contentType("text/csv")
+            .queryParam("mode", "partial")
+            .body(PARTIAL_CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201)
+            .body("rowsImported", is(2));
+
+        assertEquals(3, BankTransaction.count());
+        assertEquals(1, BankTransaction.count("reference", "P1"));
+        assertEquals(1, BankTransaction.count("reference", "P3"));
+    }
+
+    @Test
+    void testPartialImportReportsRejectedLines() {
+        importStoredReference();
+
+        given()
+            .contentType("text/csv")
+            .queryParam("mode", "partial")
+            .body(PARTIAL_CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201)
+            .body("rowsRejected", is(3))
+            .body("errors", contains("Line 3: Invalid amount 'abc'",
+                "Line 4: Duplicate reference 'P1' in uploaded file", "Line 5: Reference already exists"))
+            .body("rejectsLocation", startsWith("/transactions/imports/"));
+    }
+
+    @Test
+    void testPartialImportRejectedLinesCanBeDownloaded() {
+        importStoredReference();
+
+        String rejectsLocation = given()
+            .contentType("text/csv")
+            .queryParam("mode", "partial")
+            .body(PARTIAL_CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201)
+            .extract().path("rejectsLocation");
+
+        given()
+            .when().get(rejectsLocation)
+            .then()
+            .statusCode(200)
+            .contentType(containsString("text/csv"))
+            .body(is("""
+                line,reason,reference,timestamp,amount,currency,description
+                3,Invalid amount 'abc',P2,2024-01-10T11:00:00Z,abc,EUR,"Bad, amount"
+                4,Duplicate reference 'P1' in uploaded file,P1,2024-01-11T10:00:00Z,5,EUR,Repeated
+                5,Reference already exists,P0,2024-01-12T10:00:00Z,5,EUR,Already stored
+                """));
+    }
+
+    @Test
+    void testPartialImportWithoutRejectedLinesHasNoRejectsLocation() {
+        given()
+            .contentType("text/csv")
+            .queryParam("mode", "partial")
+            .body(generateCsv(5))
+            .when().post("/transactions")
+            .then()
+            .statusCode(201)
+            .body("rowsImported", is(5))
+            .body("rowsRejected", is(0))
+            .body("rejectsLocation", nullValue());
+    }
+
+    @Test
+    void testPartialImportReportsOnlyFirstRejectedLines() {
+        StringBuilder mangled = new StringBuilder(generateCsv(10));
+        for (int i = 0; i < 1500; i++) {
+            mangled.append("BAD").append(i).append(",yesterday,1,EUR,\n");
+        }
+
+        given()
+            .contentType("text/csv")
+            .queryParam("mode", "partial")
+            .body(mangled.toString())
+            .when().post("/transactions")
+            .then()
+            .statusCode(201)
+            .body("rowsImported", is(10))
+            .body("rowsRejected", is(1500))
+            .body("errors", hasSize(10))
+            .body("errors[0]", is("Line 12: Invalid timestamp 'yesterday'"));
+
+        assertEquals(10, BankTransaction.count());
+    }
+
+    @Test
+    void testUnknownImportModeIsRejected() {
+        given()
+            .contentType("text/csv")
+            .queryParam("mode", "lenient")
+            .body(PARTIAL_CSV)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body(containsString("Invalid mode 'lenient'"));
+
+        assertEquals(0, BankTransaction.count());
+    }
+
+    @Test
+    void testRejectsOfUnknownImportAreNotFound() {
+        given().when().get("/transactions/imports/unknown/rejects").then().statusCode(404);
+    }
+
+    private static void importStoredReference() {
+        given()
+            .contentType("text/csv")
+            .body("reference,timestamp,amount,currency,description\nP0,2024-01-09T10:00:00Z,1,EUR,\n")
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+    }
+
+    @Test
+    void testCompressedUploadsAreDecodedWhileImporting() throws IOException {
+        byte[] csv = generateCsv(2500).getBytes(StandardCharsets.UTF_8);
+        given()
+            .contentType("text/csv")
+            .header("Content-Encoding", "gzip")
+            .body(gzip(csv))
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+        assertEquals(2500, BankTransaction.count());
+
+        ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+        try (ZstdOutputStream out = new ZstdOutputStream(zstd)) {
+            out.write("""
+                reference,timestamp,amount,currency,description
+                TZ1,2024-01-15T10:30:00Z,1,EUR,
+                TZ2,2024-01-15T10:30:00Z,abc,EUR,
+                """.getBytes(StandardCharsets.UTF_8));
+        }
+        given()
+            .contentType("text/csv")
+            .header("Content-Encoding", "zstd")
+            .body(zstd.toByteArray())
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body("details", contains("Line 3: Invalid amount 'abc'"));
+        assertEquals(2500, BankTransaction.count());
+    }
+
+    @Test
+    void testCorruptOrUnsupportedCompressedUploadIsRejected() throws IOException {
+        byte[] truncated = Arrays.copyOf(gzip(generateCsv(2500).getBytes(StandardCharsets.UTF_8)), 4096);
+        given()
+            .contentType("text/csv")
+            .header("Content-Encoding", "gzip")
+            .body(truncated)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body("details[0]", startsWith("Unable to read CSV payload"));
+
+        given()
+            .contentType("text/csv")
+            .header("Content-Encoding", "br")
+            .body(truncated)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400)
+            .body("details[0]", is("Unsupported Content-Encoding 'br', expected gzip or zstd"));
+        assertEquals(0, BankTransaction.count());
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void testGetTransactionsIsPaginatedWithOpaqueCursor() {
+        given()
+            .contentType("text/csv")
+            .body(generateCsv(5))
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        String firstPage = given()
+            .queryParam("size", 2)
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("TX000005"))
+            .body(containsString("TX000004"))
+            .body(not(containsString("TX000003")))
+            .extract().asString();
+
+        Matcher next = Pattern.compile("cursor=([A-Za-z0-9_-]+)").matcher(firstPage);
+        assertTrue(next.find());
+
+        given()
+            .queryParam("size", 2)
+            .queryParam("cursor", next.group(1))
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("TX000003"))
+            .body(containsString("TX000002"))
+            .body(not(containsString("TX000005")))
+            .body(not(containsString("TX000001")));
+    }
+
+    @Test
+    void testUnchangedPageIsNotModifiedUntilNextImport() {
+        given().contentType("text/csv").body(generateCsv(3)).when().post("/transactions").then().statusCode(201);
+
+        Response first = given().queryParam("size", 2).when().get("/transactions");
+        first.then()
+            .statusCode(200)
+            .header("Cache-Control", is("no-cache"))
+            .header("Last-Modified", notNullValue());
+        String etag = first.header("ETag");
+
+        given()
+            .queryParam("size", 2)
+            .header("If-None-Match", etag)
+            .when().get("/transactions")
+            .then()
+            .statusCode(304)
+            .header("ETag", is(etag));
+
+        given().contentType("text/csv").body(generateCsv(4).replace("TX000001", "TX-NEW1"))
+            .when().post("/transactions").then().statusCode(400);
+        given().queryParam("size", 2).header("If-None-Match", etag)
+            .when().get("/transactions").then().statusCode(304);
+
+        given().contentType("text/csv")
+            .body("reference,timestamp,amount,currency,description\nTX-NEW,2025-01-01T00:00:00Z,1,EUR,Newest\n")
+            .when().post("/transactions").then().statusCode(201);
+        given()
+            .queryParam("size", 2)
+            .header("If-None-Match", etag)
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .header("ETag", not(is(etag)))
+            .body(containsString("TX-NEW"));
+    }
+
+    @Test
+    void testIfModifiedSinceDoesNotHideImportInSameSecond() throws InterruptedException {
+        given().when().get("/transactions").then().statusCode(200);
+        // both imports and the listing in between fall into one second
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+        given().contentType("text/csv").body(generateCsv(3)).when().post("/transactions").then().statusCode(201);
+        String lastModified = given().when().get("/transactions").then().statusCode(200)
+            .extract().header("Last-Modified");
+
+        given().contentType("text/csv")
+            .body("reference,timestamp,amount,currency,description\nTX-NEW,2025-01-01T00:00:00Z,1,EUR,Newest\n")
+            .when().post("/transactions").then().statusCode(201);
+        given()
+            .header("If-Modified-Since", lastModified)
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("TX-NEW"));
+    }
+
+    @Test
+    void testCachedPageIsServedPrecompressed() {
+        given().contentType("text/csv").body(generateCsv(3)).when().post("/transactions").then().statusCode(201);
+        double cachedBefore = servedCount("cached");
+
+        String identity = given()
+            .config(RestAssuredConfig.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders()))
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .header("Content-Encoding", nullValue())
+            .header("Vary", is("Accept-Encoding"))
+            .extract().asString();
+
+        given()
+            .header("Accept-Encoding", "gzip")
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .header("Content-Encoding", is("gzip"))
+            .header("ETag", endsWith("-gzip\""))
+            .body(is(identity));
+
+        assertEquals(cachedBefore + 1, servedCount("cached"));
+    }
+
+    private double servedCount(String result) {
+        return registry.find("transactions.listing.responses").tag("result", result).counters().stream()
+            .mapToDouble(Counter::count).sum();
+    }
+
+    @Test
+    void testTransactionPageIsProjectedWithoutManagedEntities() {
+        given().contentType("text/csv").body(generateCsv(3)).when().post("/transactions").then().statusCode(201);
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            TransactionPage page = transactionService.getTransactionPage(transactionService.pageRequest(null, 2), "TX000002");
+
+            assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+            assertEquals(List.of("TX000003", "TX000002"), page.rows().stream().map(TransactionRow::reference).toList());
+            TransactionRow row = page.rows().get(1);
+            assertEquals("2024-01-01 00:02:00 UTC", row.formattedTimestamp());
+            assertEquals("2.25 EUR", row.formattedAmount());
+            assertTrue(row.highlight());
+            assertNotNull(page.nextCursor());
+        });
+    }
+
+    @Test
+    void testGetTransactionsHighlightsLargestIncomeOfWholeTable() {
+        given()
+            .contentType("text/csv")
+            .body(generateCsv(5))
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        String firstPage = given()
+            .queryParam("size", 2)
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("highlight-income\" data-reference=\"TX000005\""))
+            .extract().asString();
+
+        Matcher next = Pattern.compile("cursor=([A-Za-z0-9_-]+)").matcher(firstPage);
+        assertTrue(next.find());
+
+        given()
+            .queryParam("size", 2)
+            .queryParam("cursor", next.group(1))
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("TX000003"))
+            .body(not(containsString("highlight-income\" data-reference")));
+    }
+
+    @Test
+    void testHighlightedIncomeComparesAmountsAsStored() {
+        given()
+            .contentType("text/csv")
+            .body("reference,timestamp,amount,currency,description\nTX-STORED,2024-02-01T10:00:00Z,100.00,EUR,Newer\n")
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+        given().when().get("/transactions").then().statusCode(200)
+            .body(containsString("highlight-income\" data-reference=\"TX-STORED\""));
+
+        // 100.004 is stored as 100.00; on equal amounts the newer row stays highlighted
+        given()
+            .contentType("text/csv")
+            .body("reference,timestamp,amount,currency,description\nTX-FRACTION,2024-01-01T10:00:00Z,100.004,EUR,Older\n")
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+        given().when().get("/transactions").then().statusCode(200)
+            .body(containsString("highlight-income\" data-reference=\"TX-STORED\""));
+    }
+
+    @Test
+    void testRolledBackImportDoesNotChangeHighlightedIncome() {
+        String baseCsv = """
+            reference,timestamp,amount,currency,description
+            BASE1,2023-12-01T10:00:00Z,7.00,EUR,Existing income
+            """;
+
+        given()
+            .contentType("text/csv")
+            .body(baseCsv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+
+        String rejectedCsv = generateCsv(1000) + "TX-BAD,2024-03-01T10:00:00Z,not-a-number,EUR,Bad amount\n";
+
+        given()
+            .contentType("text/csv")
+            .body(rejectedCsv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(400);
+
+        given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(not(containsString("TX001000")))
+            .body(containsString("highlight-income\" data-reference=\"BASE1\""));
+    }
+
+    @Test
+    void testGetTransactionsFiltersByTimeRangeCurrencyAndType() {
+        String csv = """
+            reference,timestamp,amount,currency,description
+            TF1,2024-01-10T10:00:00Z,100,EUR,January income
+            TF2,2024-01-20T10:00:00Z,-40,EUR,January expense
+            TF3,2024-01-25T10:00:00Z,-15,CZK,January koruna
+            TF4,2024-01-31T23:59:59Z,-5,EUR,Last second of January
+            TF5,2024-02-01T00:00:00Z,250,EUR,February income
+            """;
+        given().contentType("text/csv").body(csv).when().post("/transactions").then().statusCode(201);
+
+        String january = given()
+            .queryParam("from", "2024-01-01")
+            .queryParam("to", "2024-02-01")
+            .queryParam("currency", "eur")
+            .queryParam("type", "expense")
+            .queryParam("size", 1)
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("TF4"))
+            .body(not(containsString("TF2")))
+            .body(containsString("value=\"EUR\""))
+            .body(containsString("<option value=\"expense\" selected>"))
+            .extract().asString();
+
+        Matcher next = Pattern.compile("href=\"\\?size=1&cursor=([^&\"]+)([^\"]*)\"").matcher(january);
+        assertTrue(next.find(), "next page link keeps the filter");
+        assertEquals("&amp;from=2024-01-01T00%3A00%3A00Z&amp;to=2024-02-01T00%3A00%3A00Z"
+            + "&amp;currency=EUR&amp;type=expense", next.group(2));
+
+        given()
+            .queryParam("from", "2024-01-01")
+            .queryParam("to", "2024-02-01")
+            .queryParam("currency", "EUR")
+            .queryParam("type", "expense")
+            .queryParam("size", 1)
+            .queryParam("cursor", next.group(1))
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("TF2"))
+            .body(not(containsString("TF1")))
+            .body(not(containsString("TF3")))
+            .body(not(containsString("class=\"next-page\"")));
+
+        given()
+            .queryParam("type", "income")
+            .queryParam("from", "2024-01-15T00:00:00Z")
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("TF5"))
+            .body(not(containsString("TF1")));
+
+        given()
+            .queryParam("currency", "USD")
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("No transactions match the filter."));
+
+        given()
+            .queryParam("type", "refund")
+            .when().get("/transactions")
+            .then()
+            .statusCode(400)
+            .body("details[0]", is("Invalid type 'refund', expected 'income' or 'expense'"));
+    }
+
+    @Test
+    void testSummaryIsReadFromRollupsWithRunningBalance() {
+        String csv = """
+            reference,timestamp,amount,currency,description
+            S1,2024-01-10T10:00:00Z,100.50,EUR,January income
+            S2,2024-01-20T10:00:00Z,-40.25,EUR,January expense
+            S3,2024-02-05T10:00:00Z,200,EUR,February income
+            S4,2024-02-06T10:00:00Z,-50,EUR,February expense
+            S5,2024-02-29T23:59:59Z,-10,EUR,Last second of February
+            S6,2024-03-01T00:00:00Z,30,EUR,March income
+            S7,2024-02-10T10:00:00Z,1000,CZK,Koruna income
+            """;
+        given().contentType("text/csv").body(csv).when().post("/transactions").then().statusCode(201);
+
+        String rejected = """
+            reference,timestamp,amount,currency,description
+            S8,2024-02-07T10:00:00Z,500,EUR,Rolled back
+            S1,2024-02-07T10:00:00Z,5,EUR,Duplicate
+            """;
+        given().contentType("text/csv").body(rejected).when().post("/transactions").then().statusCode(400);
+
+        given()
+            .queryParam("from", "2024-02-01")
+            .queryParam("to", "2024-04-01")
+            .queryParam("currency", "eur")
+            .when().get("/transactions/summary")
+            .then()
+            .statusCode(200)
+            .body("granularity", equalTo("month"))
+            .body("currencies.currency", contains("EUR"))
+            .body("currencies[0].openingBalance", equalTo(60.25f))
+            .body("currencies[0].periods.period", contains("2024-02-01", "2024-03-01"))
+            .body("currencies[0].periods[0].income", equalTo(200.0f))
+            .body("currencies[0].periods[0].expense", equalTo(-60.0f))
+            .body("currencies[0].periods[0].expenseCount", equalTo(2))
+            .body("currencies[0].periods[0].balance", equalTo(200.25f))
+            .body("currencies[0].periods[1].net", equalTo(30.0f))
+            .body("currencies[0].closingBalance", equalTo(230.25f));
+
+        given()
+            .queryParam("granularity", "year")
+            .when().get("/transactions/summary")
+            .then()
+            .statusCode(200)
+            .body("currencies.currency", contains("CZK", "EUR"))
+            .body("currencies[0].income", equalTo(1000.0f))
+            .body("currencies[1].periods[0].incomeCount", equalTo(3))
+            .body("currencies[1].closingBalance", equalTo(230.25f));
+
+        given()
+            .queryParam("granularity", "week")
+            .when().get("/transactions/summary")
+            .then()
+            .statusCode(400)
+            .body(containsString("Unsupported granularity 'week'"));
+    }
+
+    @Test
+    void testRollupDayFollowsTheStoredTimestamp() {
+        String csv = """
+            reference,timestamp,amount,currency,description
+            R1,2024-01-31T23:59:59.9999996Z,10,EUR,Rounds into February
+            R2,2024-01-31T23:59:59.9999994Z,5,EUR,Stays in January
+            """;
+        given().contentType("text/csv").body(csv).when().post("/transactions").then().statusCode(201);
+
+        given()
+            .queryParam("granularity", "day")
+            .when().get("/transactions/summary")
+            .then()
+            .statusCode(200)
+            .body("currencies[0].periods.period", contains("2024-01-31", "2024-02-01"))
+            .body("currencies[0].periods[0].income", equalTo(5.0f))
+            .body("currencies[0].periods[1].income", equalTo(10.0f));
+    }
+
+    @Test
+    void testGetTransactionsRejectsInvalidCursorAndPageSize() {
+        given()
+            .queryParam("cursor", "not-a-cursor")
+            .when().get("/transactions")
+            .then()
+            .statusCode(400)
+            .body(containsString("Invalid page cursor"));
+
+        given()
+            .queryParam("size", 0)
+            .when().get("/transactions")
+            .then()
+            .statusCode(400)
+            .body(containsString("Page size must be between 1 and"));
+    }
+
+    @Test
+    void testImportAndListingMetricsArePublished() {
+        double accepted = registry.get("transactions.import.rows").tag("result", "accepted").counter().count();
+        double rejected = registry.get("transactions.import.rows").tag("result", "rejected").counter().count();
+
+        given().contentType("text/csv").body(generateCsv(1200)).when().post("/transactions").then().statusCode(201);
+        given().contentType("text/csv")
+            .body(generateCsv(1500).replace("TX0", "TY0") + "TX-BAD,2024-01-15T10:30:00Z,oops,EUR,\n")
+            .when().post("/transactions").then().statusCode(400);
+        given().when().get("/transactions").then().statusCode(200);
+
+        assertEquals(accepted + 1200, registry.get("transactions.import.rows").tag("result", "accepted").counter().count());
+        assertEquals(rejected + 1501, registry.get("transactions.import.rows").tag("result", "rejected").counter().count());
+        assertEquals(0.0, registry.get("transactions.import.in.flight").gauge().value());
+        assertTrue(registry.get("transactions.import.phase").tags("phase", "persist", "outcome", "success").timer().count() > 0);
+
+        given()
+            .baseUri("http://localhost:" + ConfigProvider.getConfig().getValue("quarkus.management.test-port", Integer.class))
+            .when().get("/q/metrics")
+            .then()
+            .statusCode(200)
+            .body(containsString("transactions_import_phase_seconds_bucket"))
+            .body(containsString("transactions_listing_phase_seconds_count{mode=\"buffered\",phase=\"render\"}"));
+    }
+
+    static String generateCsv(int rows) {
+        StringBuilder csv = new StringBuilder("reference,timestamp,amount,currency,description\n");
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 1; i <= rows; i++) {
+            csv.append("TX%06d,%s,%d.25,EUR,Generated row %d\n".formatted(i, start.plusSeconds(i * 60L), i, i));
+        }
+        return csv.toString();
+    }
 }
@@ -0,0 +1,145 @@
+package org.acme.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.acme.data.BankTransaction;
+import org.acme.persistence.DatabaseLimiter;
+import org.acme.service.LargestIncomeTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(VirtualThreadsTest.VirtualThreadsProfile.class)
+class VirtualThreadsTest {
+
+    public static class VirtualThreadsProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "quarkus.virtual-threads.enabled", "true",
+                "transactions.database.max-concurrent-work", "1",
+                "transactions.database.acquire-timeout", "200ms",
+                "transactions.listing.cache.enabled", "false"
+            );
+        }
+    }
+
+    @Inject
+    DatabaseLimiter databaseLimiter;
+
+    @Inject
+    LargestIncomeTracker largestIncomeTracker;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BankTransaction.deleteAll();
+        largestIncomeTracker.refresh();
+    }
+
+    @Test
+    void testUploadsAreReadOnVirtualThreadsThroughTheOffloadedBody() throws IOException {
+        byte[] csv = TransactionResourceTest.generateCsv(3000).getBytes(StandardCharsets.UTF_8);
+        given().contentType("text/csv").body(csv).when().post("/transactions").then().statusCode(201);
+
+        given()
+            .contentType("text/csv")
+            .header("Content-Encoding", "gzip")
+            .body(TransactionResourceTest.gzip(TransactionResourceTest.generateCsv(2500)
+                .replace("TX", "GZ").getBytes(StandardCharsets.UTF_8)))
+            .when().post("/transactions")
+            .then()
+            .statusCode(201);
+        assertEquals(5500L, BankTransaction.count());
+        // the request stream pins virtual threads, so bodies are read by a platform thread
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+            .anyMatch(thread -> thread.getName().startsWith("upload-reader-")));
+
+        given()
+            .queryParam("size", 5)
+            .when().get("/transactions")
+            .then()
+            .statusCode(200)
+            .body(containsString("class=\"next-page\""));
+    }
+
+    @Test
+    void testBackgroundUploadsAreSpooledWithoutWaitingForImportReaders() throws InterruptedException {
+        byte[] csv = TransactionResourceTest.generateCsv(500).getBytes(StandardCharsets.UTF_8);
+        String location = databaseLimiter.call(() -> given()
+            .contentType("text/csv")
+            .header("Prefer", "respond-async")
+            .body(csv)
+            .when().post("/transactions")
+            .then()
+            .statusCode(202)
+            .extract().header("Location"));
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+            .anyMatch(thread -> thread.getName().startsWith("upload-spool-reader-")));
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        String phase;
+        do {
+            Thread.sleep(50);
+            phase = given().when().get(location).then().statusCode(200).extract().path("phase");
+        } while (!phase.equals("SUCCEEDED") && !phase.equals("FAILED") && System.currentTimeMillis() < deadline);
+        assertEquals("SUCCEEDED", phase);
+    }
+
+    @Test
+    void testBackgroundImportsWaitForADatabasePermit() throws InterruptedException {
+        byte[] csv = TransactionResourceTest.generateCsv(200).getBytes(StandardCharsets.UTF_8);
+        String location = databaseLimiter.call(() -> {
+            String queued = given()
+                .contentType("text/csv")
+                .header("Prefer", "respond-async")
+                .body(csv)
+                .when().post("/transactions")
+                .then()
+                .statusCode(202)
+                .extract().header("Location");
+            try {
+                // longer than the acquire timeout, so the job must wait instead of failing
+                Thread.sleep(500);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            given().when().get(queued).then().statusCode(200).body("phase", is("QUEUED"));
+            assertEquals(0L, BankTransaction.count());
+            return queued;
+        });
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        String phase;
+        do {
+            Thread.sleep(50);
+            phase = given().when().get(location).then().statusCode(200).extract().path("phase");
+        } while (!phase.equals("SUCCEEDED") && !phase.equals("FAILED") && System.currentTimeMillis() < deadline);
+        assertEquals("SUCCEEDED", phase);
+        assertEquals(200L, BankTransaction.count());
+    }
+
+    @Test
+    void testRequestsWaitingTooLongForTheDatabaseGetServiceUnavailable() {
+        databaseLimiter.run(() -> given()
+            .when().get("/transactions")
+            .then()
+            .statusCode(503)
+            .body("message", is("Database is busy, try again later")));
+
+        given().when().get("/transactions").then().statusCode(200);
+    }
+}
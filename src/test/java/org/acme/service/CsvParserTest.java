@@ -0,0 +1,218 @@
+package org.acme.service;
+
+import org.acme.data.BankTransaction;
+import org.acme.exception.TransactionValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvParserTest {
+
+    @Test
+    void testQuotedFieldsCrlfBlankLinesAndColumnOrder() {
+        String csv = "currency,description,amount,timestamp,reference\r\n"
+            + "\r\n"
+            + "eur,\"Rent, \"\"March\"\"\nsecond line\",  -1337.50 ,2024-02-29T23:59:59Z, TX1 \r\n"
+            + "CZK,,20000,2023-01-11T03:00:01Z,TX2";
+
+        List<BankTransaction> transactions = parse(csv);
+
+        assertEquals(2, transactions.size());
+        BankTransaction first = transactions.get(0);
+        assertEquals("TX1", first.getReference());
+        assertEquals("EUR", first.getCurrency());
+        assertEquals("Rent, \"March\"\nsecond line", first.getDescription());
+        assertEquals(new BigDecimal("-1337.50"), first.getAmount());
+        assertEquals(Instant.parse("2024-02-29T23:59:59Z"), first.getTimestamp());
+        assertNull(transactions.get(1).getDescription());
+    }
+
+    @Test
+    void testFastPathsMatchJdkParsers() {
+        for (String value : List.of("2024-01-15T10:30:00Z", "0000-01-01T00:00:00Z", "1969-12-31T23:59:59Z",
+                "2000-02-29T12:00:00Z", "9999-12-31T23:59:59Z", "2024-01-15T10:30:00.5Z", "2024-01-15t10:30:00z")) {
+            assertEquals(Instant.parse(value), parseOne("TX1," + value + ",1,EUR,").getTimestamp(), value);
+        }
+        for (String value : List.of("0", "-0.00", "+5", "100.50", "-1337", "007.10", "999999999999999999",
+                "1234567890123456789.12", "1.", ".5", "1e3")) {
+            BigDecimal parsed = parseOne("TX1,2024-01-15T10:30:00Z," + value + ",EUR,").getAmount();
+            assertEquals(new BigDecimal(value), parsed, value);
+            assertEquals(new BigDecimal(value).scale(), parsed.scale(), value);
+        }
+    }
+
+    @Test
+    void testErrorsKeepLineNumbersAndMessages() {
+        String csv = """
+            reference,timestamp,amount,currency,description
+            TX1,2023-02-29T10:00:00Z,1,EUR,
+            ,2024-01-15T25:00:00Z,1.2.3,EURO,
+            TX3,2024-01-15T10:30:00Z,5,E,
+            """;
+
+        TransactionValidationException ex = assertThrows(TransactionValidationException.class, () -> parse(csv));
+
+        assertEquals(List.of(
+            "Line 2: Invalid timestamp '2023-02-29T10:00:00Z'",
+            "Line 3: Missing reference",
+            "Line 3: Invalid timestamp '2024-01-15T25:00:00Z'",
+            "Line 3: Invalid amount '1.2.3'",
+            "Line 3: Currency must be a 3-letter ISO code",
+            "Line 4: Currency must be a 3-letter ISO code"
+        ), ex.getErrors());
+    }
+
+    @Test
+    void testRowWithMissingColumnsReportsMissingFields() {
+        TransactionValidationException ex = assertThrows(TransactionValidationException.class,
+            () -> parse("reference,timestamp,amount,currency,description\nTX1,2024-01-15T10:30:00Z\n"));
+
+        assertEquals(List.of("Line 2: Missing amount", "Line 2: Missing currency"), ex.getErrors());
+    }
+
+    @Test
+    void testUnterminatedQuoteIsUnreadable() {
+        TransactionValidationException ex = assertThrows(TransactionValidationException.class,
+            () -> parse("reference,timestamp,amount,currency,description\nTX1,2024-01-15T10:30:00Z,1,EUR,\"open\n"));
+
+        assertEquals(List.of("Unable to read CSV payload: EOF reached before encapsulated token finished"), ex.getErrors());
+    }
+
+    @Test
+    void testParallelValidationMatchesSequential() {
+        StringBuilder csv = new StringBuilder("reference,timestamp,amount,currency,description\r\n");
+        for (int i = 0; i < 3000; i++) {
+            String description = switch (i % 4) {
+                case 0 -> "\"multi\nline, \"\"quoted\"\"\r\nvalue\"";
+                case 1 -> "plain";
+                case 2 -> "\"\"";
+                default -> "";
+            };
+            csv.append("TX").append(i).append(",2024-01-15T10:30:00Z,").append(i).append(".5,eur,")
+                .append(description).append(i % 7 == 0 ? "\r\n\r\n" : "\n");
+        }
+        String valid = csv.toString();
+        String invalid = valid.replace("TX17,2024-01-15T10:30:00Z,17.5", "TX17,2024-01-15T10:30:00Z,oops")
+            .replace("TX2999,2024-01-15T10:30:00Z,2999.5,eur", "TX2999,2024-01-15T10:30:00Z,2999.5,euro");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CsvParser.Parallelism parallelism = new CsvParser.Parallelism(pool, 4, 1);
+            List<BankTransaction> sequential = readChunks(valid, null);
+            List<BankTransaction> parallel = readChunks(valid, parallelism);
+            assertEquals(3000, parallel.size());
+            for (int i = 0; i < sequential.size(); i++) {
+                assertEquals(sequential.get(i).getReference(), parallel.get(i).getReference());
+                assertEquals(sequential.get(i).getAmount(), parallel.get(i).getAmount());
+                assertEquals(sequential.get(i).getDescription(), parallel.get(i).getDescription());
+            }
+
+            TransactionValidationException sequentialErrors = assertThrows(TransactionValidationException.class,
+                () -> readChunks(invalid, null));
+            TransactionValidationException parallelErrors = assertThrows(TransactionValidationException.class,
+                () -> readChunks(invalid, parallelism));
+            assertFalse(parallelErrors.getErrors().isEmpty());
+            assertEquals(sequentialErrors.getErrors(), parallelErrors.getErrors());
+
+            TransactionValidationException unreadable = assertThrows(TransactionValidationException.class,
+                () -> readChunks(valid + "TX-1,2024-01-15T10:30:00Z,1,EUR,\"open\n", parallelism));
+            assertEquals(List.of("Unable to read CSV payload: EOF reached before encapsulated token finished"),
+                unreadable.getErrors());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testErrorCollectionStopsAtMaxErrors() {
+        StringBuilder csv = new StringBuilder("reference,timestamp,amount,currency,description\n");
+        for (int i = 0; i < 3000; i++) {
+            csv.append("TX").append(i).append(",2024-01-15T10:30:00Z,").append(i % 2 == 0 ? "1" : "bad")
+                .append(",EUR,\"note, ").append(i).append("\"\n");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CsvParser.Parallelism parallelism = new CsvParser.Parallelism(pool, 4, 1);
+            for (CsvParser.Parallelism mode : new CsvParser.Parallelism[] {null, parallelism}) {
+                try (CsvParser.RecordReader reader = open(csv.toString(), mode)) {
+                    TransactionValidationException ex = assertThrows(TransactionValidationException.class,
+                        () -> reader.nextChunk(3000));
+                    assertEquals(List.of("Line 3: Invalid amount 'bad'", "Line 5: Invalid amount 'bad'",
+                        "Line 7: Invalid amount 'bad'", "Validation stopped after 3 invalid lines"), ex.getErrors());
+                }
+
+                // a failing chunk reports the invalid lines of the chunks after it too
+                try (CsvParser.RecordReader reader = open(csv.toString(), mode)) {
+                    TransactionValidationException ex = assertThrows(TransactionValidationException.class,
+                        () -> reader.nextChunk(4));
+                    assertEquals(List.of("Line 3: Invalid amount 'bad'", "Line 5: Invalid amount 'bad'",
+                        "Line 7: Invalid amount 'bad'", "Validation stopped after 3 invalid lines"), ex.getErrors());
+                }
+
+                try (CsvParser.RecordReader reader = open(csv.toString(), mode)) {
+                    CsvParser.Chunk chunk = reader.nextChunk(4, true);
+                    assertEquals(List.of("TX0", "TX2"),
+                        chunk.transactions().stream().map(BankTransaction::getReference).toList());
+                    assertEquals(2, chunk.lines()[0]);
+                    assertEquals(4, chunk.lines()[1]);
+                    CsvParser.RejectedLine rejected = chunk.rejected().get(1);
+                    assertEquals(5, rejected.line());
+                    assertEquals("Invalid amount 'bad'", rejected.reason());
+                    assertEquals(List.of("TX3", "2024-01-15T10:30:00Z", "bad", "EUR", "note, 3"), rejected.fields());
+                }
+
+                try (CsvParser.RecordReader reader = open(csv.toString(), mode)) {
+                    CsvParser.Chunk chunk = reader.nextChunk(3000, true);
+                    assertEquals(1500, chunk.transactions().size());
+                    assertEquals(1500, chunk.rejected().size());
+                }
+
+                String exactlyAtLimit = csv.substring(0, csv.indexOf("TX6,"));
+                try (CsvParser.RecordReader reader = open(exactlyAtLimit, mode)) {
+                    TransactionValidationException ex = assertThrows(TransactionValidationException.class,
+                        () -> reader.nextChunk(3000));
+                    assertEquals(List.of("Line 3: Invalid amount 'bad'", "Line 5: Invalid amount 'bad'",
+                        "Line 7: Invalid amount 'bad'"), ex.getErrors());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static CsvParser.RecordReader open(String csv, CsvParser.Parallelism parallelism) {
+        return CsvParser.open(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), parallelism, 3);
+    }
+
+    private static List<BankTransaction> readChunks(String csv, CsvParser.Parallelism parallelism) {
+        List<BankTransaction> transactions = new ArrayList<>();
+        try (CsvParser.RecordReader reader = CsvParser.open(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), parallelism)) {
+            List<BankTransaction> chunk;
+            while (!(chunk = reader.nextChunk(2000)).isEmpty()) {
+                transactions.addAll(chunk);
+            }
+        }
+        return transactions;
+    }
+
+    private static BankTransaction parseOne(String row) {
+        return parse("reference,timestamp,amount,currency,description\n" + row).get(0);
+    }
+
+    private static List<BankTransaction> parse(String csv) {
+        return CsvParser.parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,95 @@
+package org.acme.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionFormatterTest {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
+        .ofPattern("yyyy-MM-dd HH:mm:ss z")
+        .withZone(ZoneId.of("UTC"));
+
+    private final TransactionFormatter formatter = new TransactionFormatter();
+
+    @Test
+    void testAmountsMatchDecimalFormat() {
+        DecimalFormat reference = referenceAmountFormat();
+        for (String value : List.of("0", "-0.00", "-0.001", "0.005", "0.015", "0.0050000001", "100.50", "100.00",
+                "-1337", "1E+3", "999.995", "-999999.999", "1234567.891", "-1234567.895", "999999999999999999",
+                "12345678901234567890.125", "1e-10")) {
+            BigDecimal amount = new BigDecimal(value);
+            assertEquals(reference.format(amount) + " EUR", formatter.formatAmount(amount, "EUR"), value);
+        }
+    }
+
+    @Test
+    void testTimestampsMatchDateTimeFormatter() {
+        for (String value : List.of("2024-01-15T10:30:00Z", "2024-02-29T23:59:59.999Z", "1970-01-01T00:00:00Z",
+                "1969-12-31T23:59:59Z", "0001-01-01T00:00:00Z", "0000-06-01T12:00:00Z", "9999-12-31T23:59:59Z",
+                "+10000-01-01T00:00:00Z")) {
+            Instant timestamp = Instant.parse(value);
+            assertEquals(DATE_TIME_FORMATTER.format(timestamp), formatter.formatTimestamp(timestamp), value);
+            assertEquals(DATE_TIME_FORMATTER.format(timestamp), formatter.formatTimestamp(timestamp), value);
+        }
+    }
+
+    @Test
+    void testConcurrentFormattingMatchesJdkFormatters() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                results.add(executor.submit(() -> {
+                    DecimalFormat reference = referenceAmountFormat();
+                    SplittableRandom random = new SplittableRandom(seed);
+                    StringBuilder buffer = new StringBuilder();
+                    start.await();
+                    for (int i = 0; i < 50_000; i++) {
+                        BigDecimal amount = BigDecimal.valueOf(random.nextLong(-10_000_000_000L, 10_000_000_000L),
+                            random.nextInt(0, 4));
+                        buffer.setLength(0);
+                        formatter.appendAmount(buffer, amount, "CZK");
+                        assertEquals(reference.format(amount) + " CZK", buffer.toString());
+
+                        // a narrow range keeps the caches contended between threads
+                        Instant timestamp = Instant.ofEpochSecond(1_700_000_000L + random.nextLong(0, 20_000_000L));
+                        assertEquals(DATE_TIME_FORMATTER.format(timestamp), formatter.formatTimestamp(timestamp));
+                    }
+                    return 50_000;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(50_000, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DecimalFormat referenceAmountFormat() {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.US);
+        symbols.setDecimalSeparator('.');
+        symbols.setGroupingSeparator(' ');
+        return new DecimalFormat("###,##0.##", symbols);
+    }
+}
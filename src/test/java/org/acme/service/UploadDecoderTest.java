@@ -0,0 +1,99 @@
+package org.acme.service;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.acme.data.BankTransaction;
+import org.acme.exception.TransactionValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadDecoderTest {
+
+    private static final String CSV = """
+        reference,timestamp,amount,currency,description
+        TX1,2024-01-15T10:30:00Z,100.50,EUR,First
+        TX2,2024-01-16T10:30:00Z,-20,CZK,Second
+        """;
+
+    private final UploadDecoder decoder = new UploadDecoder(64 * 1024 * 1024, 200);
+
+    @Test
+    void testGzipAndZstdDecodeToTheSameTransactions() {
+        for (UploadDecoder.Encoding encoding : List.of(UploadDecoder.Encoding.GZIP, UploadDecoder.Encoding.ZSTD)) {
+            byte[] body = compress(encoding, CSV.getBytes(StandardCharsets.UTF_8));
+            List<BankTransaction> transactions = CsvParser.parse(decoder.decode(new ByteArrayInputStream(body), encoding));
+            assertEquals(List.of("TX1", "TX2"), transactions.stream().map(BankTransaction::getReference).toList());
+        }
+        assertEquals(UploadDecoder.Encoding.GZIP, decoder.encoding(" X-GZIP "));
+        assertEquals(UploadDecoder.Encoding.IDENTITY, decoder.encoding(null));
+        assertThrows(TransactionValidationException.class, () -> decoder.encoding("br"));
+    }
+
+    @Test
+    void testCorruptStreamsAreReportedAsUnreadable() {
+        byte[] gzip = compress(UploadDecoder.Encoding.GZIP, CSV.repeat(20).getBytes(StandardCharsets.UTF_8));
+        assertUnreadable(UploadDecoder.Encoding.GZIP, "not gzip at all".getBytes(StandardCharsets.UTF_8));
+        assertUnreadable(UploadDecoder.Encoding.GZIP, Arrays.copyOf(gzip, gzip.length / 2));
+        byte[] flipped = gzip.clone();
+        flipped[flipped.length - 6] ^= 0x5A;
+        assertUnreadable(UploadDecoder.Encoding.GZIP, flipped);
+
+        byte[] zstd = compress(UploadDecoder.Encoding.ZSTD, CSV.repeat(20).getBytes(StandardCharsets.UTF_8));
+        assertUnreadable(UploadDecoder.Encoding.ZSTD, "not zstd at all".getBytes(StandardCharsets.UTF_8));
+        assertUnreadable(UploadDecoder.Encoding.ZSTD, Arrays.copyOf(zstd, zstd.length / 2));
+    }
+
+    @Test
+    void testDecompressionBombsAreStopped() {
+        byte[] zeros = new byte[8 * 1024 * 1024];
+        for (UploadDecoder.Encoding encoding : List.of(UploadDecoder.Encoding.GZIP, UploadDecoder.Encoding.ZSTD)) {
+            IOException ratio = assertThrows(IOException.class,
+                () -> drain(decoder.decode(new ByteArrayInputStream(compress(encoding, zeros)), encoding)));
+            assertEquals("Compression ratio exceeds 200:1", ratio.getMessage());
+        }
+
+        UploadDecoder small = new UploadDecoder(1024, 1_000_000);
+        byte[] body = compress(UploadDecoder.Encoding.GZIP, CSV.repeat(50).getBytes(StandardCharsets.UTF_8));
+        IOException size = assertThrows(IOException.class,
+            () -> drain(small.decode(new ByteArrayInputStream(body), UploadDecoder.Encoding.GZIP)));
+        assertEquals("Decompressed payload exceeds 1024 bytes", size.getMessage());
+    }
+
+    private void assertUnreadable(UploadDecoder.Encoding encoding, byte[] body) {
+        TransactionValidationException ex = assertThrows(TransactionValidationException.class,
+            () -> CsvParser.parse(decoder.decode(new ByteArrayInputStream(body), encoding)));
+        assertTrue(ex.getErrors().getFirst().startsWith("Unable to read CSV payload: "), ex.getErrors().toString());
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    static byte[] compress(UploadDecoder.Encoding encoding, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream compressor = encoding == UploadDecoder.Encoding.GZIP
+                ? new GZIPOutputStream(out)
+                : new ZstdOutputStream(out)) {
+            compressor.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}